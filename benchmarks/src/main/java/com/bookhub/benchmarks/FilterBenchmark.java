@@ -0,0 +1,78 @@
+package com.bookhub.benchmarks;
+
+import main.java.com.bookhub.ui.common.KeySetRowFilter;
+import main.java.com.bookhub.ui.common.NgramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import javax.swing.RowFilter;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+
+/**
+ * Filtro por texto en cada tecla. regexFilter es como lo hacia
+ * LibroListFrame.applyFilter (RowFilter.regexFilter con "(?i).*texto.*" sobre
+ * titulo y autor); ngramFilter es el camino actual: busqueda en NgramIndex y
+ * KeySetRowFilter con las claves resultantes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FilterBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"g", "gar", "soledad", "zzz"})
+    public String query;
+
+    private TableRowSorter<TableModel> sorter;
+    private DefaultTableModel model;
+    private NgramIndex<String> index;
+
+    @Setup
+    public void setup() {
+        model = new DefaultTableModel(new Object[]{"ISBN", "Titulo", "Autor", "Categoria", "Estado"}, 0);
+        for (Fixtures.Libro libro : Fixtures.libros(rows)) {
+            model.addRow(new Object[]{libro.getIsbn(), libro.getTitulo(), libro.getAutor(), libro.getCategoria(),
+                libro.isDisponible() ? "Disponible" : "Prestado"});
+        }
+        sorter = new TableRowSorter<>(model);
+
+        // El indice se mantiene al cargar la tabla, fuera del camino de cada tecla
+        index = new NgramIndex<>();
+        index.sync(Fixtures.libros(rows), Fixtures.Libro::getIsbn,
+            libro -> NgramIndex.join(libro.getTitulo(), libro.getAutor()));
+    }
+
+    @Benchmark
+    public int regexFilter() {
+        String regex = "(?i).*" + Pattern.quote(query.trim()) + ".*";
+        sorter.setRowFilter(RowFilter.regexFilter(regex, 1, 2));
+        return sorter.getViewRowCount();
+    }
+
+    @Benchmark
+    public int ngramFilter() {
+        Set<String> matches = index.search(query);
+        sorter.setRowFilter(matches == null ? null
+            : new KeySetRowFilter<>(matches, row -> model.getValueAt(row, 0)));
+        return sorter.getViewRowCount();
+    }
+}
@@ -0,0 +1,118 @@
+package com.bookhub.benchmarks;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Datos sinteticos con la misma forma que los DTO del backend, generados con
+ * semilla fija para que todas las corridas midan lo mismo.
+ */
+public final class Fixtures {
+
+    private static final String[] CATEGORIAS = {"Literatura", "Tecnologia", "Ciencia", "Historia", "Infantil", "Arte", "Otro"};
+    private static final String[] PALABRAS = {"cien", "anos", "soledad", "principito", "quijote", "mancha", "tiempo", "perdido",
+        "guerra", "paz", "ciudad", "perros", "rayuela", "ficciones", "aleph", "sombra", "viento", "nombre", "rosa", "java"};
+    private static final String[] AUTORES = {"Garcia Marquez", "Saint-Exupery", "Cervantes", "Proust", "Tolstoi",
+        "Vargas Llosa", "Cortazar", "Borges", "Ruiz Zafon", "Eco", "Bloch"};
+    private static final String[] ESTADOS = {"ACTIVO", "DEVUELTO", "VENCIDO"};
+
+    private Fixtures() {}
+
+    public static List<Libro> libros(int n) {
+        Random random = new Random(42);
+        List<Libro> libros = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Libro libro = new Libro();
+            libro.isbn = String.format("978-%010d", i);
+            libro.titulo = palabra(random) + " " + palabra(random) + " " + palabra(random);
+            libro.autor = AUTORES[random.nextInt(AUTORES.length)];
+            libro.categoria = CATEGORIAS[random.nextInt(CATEGORIAS.length)];
+            libro.disponible = random.nextBoolean();
+            libros.add(libro);
+        }
+        return libros;
+    }
+
+    /** Arreglo JSON compacto, como lo devuelve GET /libros. */
+    public static byte[] librosJson(int n) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(n * 128);
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            writer.beginArray();
+            for (Libro libro : libros(n)) {
+                writer.beginObject()
+                    .name("isbn").value(libro.isbn)
+                    .name("titulo").value(libro.titulo)
+                    .name("autor").value(libro.autor)
+                    .name("categoria").value(libro.categoria)
+                    .name("disponible").value(libro.disponible)
+                    .endObject();
+            }
+            writer.endArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<Prestamo> prestamos(int n) {
+        Random random = new Random(7);
+        LocalDate base = LocalDate.of(2024, 1, 1);
+        List<Prestamo> prestamos = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Prestamo p = new Prestamo();
+            p.id = i + 1L;
+            p.usuarioCedula = String.valueOf(10_000_000 + random.nextInt(90_000_000));
+            p.libroIsbn = String.format("978-%010d", random.nextInt(1_000_000));
+            p.fechaPrestamo = base.plusDays(random.nextInt(365));
+            p.fechaDevolucion = p.fechaPrestamo.plusDays(1 + random.nextInt(15));
+            p.estado = ESTADOS[random.nextInt(ESTADOS.length)];
+            prestamos.add(p);
+        }
+        return prestamos;
+    }
+
+    private static String palabra(Random random) {
+        return PALABRAS[random.nextInt(PALABRAS.length)];
+    }
+
+    /** Misma forma que com.bookhub.dto.LibroResponse. */
+    public static class Libro {
+        String isbn;
+        String titulo;
+        String autor;
+        String categoria;
+        boolean disponible;
+
+        public String getIsbn() { return isbn; }
+        public String getTitulo() { return titulo; }
+        public String getAutor() { return autor; }
+        public String getCategoria() { return categoria; }
+        public boolean isDisponible() { return disponible; }
+    }
+
+    /** Misma forma que com.bookhub.dto.PrestamoResponse. */
+    public static class Prestamo {
+        Long id;
+        String usuarioCedula;
+        String libroIsbn;
+        LocalDate fechaPrestamo;
+        LocalDate fechaDevolucion;
+        String estado;
+
+        public Long getId() { return id; }
+        public String getUsuarioCedula() { return usuarioCedula; }
+        public String getLibroIsbn() { return libroIsbn; }
+        public LocalDate getFechaPrestamo() { return fechaPrestamo; }
+        public LocalDate getFechaDevolucion() { return fechaDevolucion; }
+        public String getEstado() { return estado; }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bookhub.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificacion de GET /libros: la ruta original (ApiClient.readResponse linea
+ * a linea en un StringBuilder y Gson sobre el String) frente a la decodificacion
+ * en streaming con JsonReader que usa ahora ApiClient.streamList.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class JsonDecodeBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private final Gson gson = new Gson();
+    private final Type listType = TypeToken.getParameterized(List.class, Fixtures.Libro.class).getType();
+    private TypeAdapter<Fixtures.Libro> adapter;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        body = Fixtures.librosJson(size);
+        adapter = gson.getAdapter(Fixtures.Libro.class);
+    }
+
+    @Benchmark
+    public List<Fixtures.Libro> readResponseThenGson() throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            StringBuilder sb = new StringBuilder();
+            String line;
+            while ((line = br.readLine()) != null) {
+                sb.append(line);
+            }
+            return gson.fromJson(sb.toString(), listType);
+        }
+    }
+
+    @Benchmark
+    public int streamingJsonReader(Blackhole bh) throws IOException {
+        int count = 0;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                bh.consume(adapter.read(reader));
+                count++;
+            }
+            reader.endArray();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,79 @@
+package com.bookhub.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Construccion de filas de PrestamoFrame: el cargarActivos/cargarHistorial
+ * original (un addRow por prestamo) frente a construir Object[][] y asignarlo
+ * con un unico setDataVector, como hace ahora la carga en segundo plano.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PrestamoRowsBenchmark {
+
+    private static final Object[] COLUMNAS = {"ID", "Cedula", "ISBN", "F. Prestamo", "F. Devolucion", "Estado"};
+
+    @Param({"1000", "10000", "100000"})
+    public int prestamos;
+
+    private List<Fixtures.Prestamo> datos;
+    private DefaultTableModel model;
+
+    @Setup
+    public void setup() {
+        datos = Fixtures.prestamos(prestamos);
+        model = new DefaultTableModel(COLUMNAS, 0);
+    }
+
+    @Benchmark
+    public int addRowPorPrestamo() {
+        model.setRowCount(0);
+        for (Fixtures.Prestamo p : datos) {
+            model.addRow(new Object[]{
+                p.getId(),
+                p.getUsuarioCedula(),
+                p.getLibroIsbn(),
+                p.getFechaPrestamo(),
+                p.getFechaDevolucion(),
+                p.getEstado()
+            });
+        }
+        return model.getRowCount();
+    }
+
+    @Benchmark
+    public int filasYSetDataVector() {
+        Object[][] rows = new Object[datos.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            Fixtures.Prestamo p = datos.get(i);
+            rows[i] = new Object[]{
+                p.getId(),
+                p.getUsuarioCedula(),
+                p.getLibroIsbn(),
+                p.getFechaPrestamo(),
+                p.getFechaDevolucion(),
+                p.getEstado()
+            };
+        }
+        model.setDataVector(rows, COLUMNAS);
+        return model.getRowCount();
+    }
+}
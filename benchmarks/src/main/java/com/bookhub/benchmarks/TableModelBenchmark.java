@@ -0,0 +1,80 @@
+package com.bookhub.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import javax.swing.RowFilter;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+
+/**
+ * Relleno de la tabla de libros como en el renderTable original:
+ * setRowCount(0) y un addRow por libro con el TableRowSorter conectado,
+ * con y sin un filtro de texto activo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TableModelBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean filtered;
+
+    private List<Fixtures.Libro> libros;
+    private DefaultTableModel model;
+
+    @Setup
+    public void setup() {
+        libros = Fixtures.libros(rows);
+        model = new DefaultTableModel(new Object[]{"ISBN", "Titulo", "Autor", "Categoria", "Estado"}, 0);
+        TableRowSorter<TableModel> sorter = new TableRowSorter<>(model);
+        if (filtered) {
+            sorter.setRowFilter(RowFilter.regexFilter("(?i).*" + Pattern.quote("sol") + ".*", 1, 2));
+        }
+        // Reenvia los eventos al sorter como lo hace JTable.sortedTableChanged
+        model.addTableModelListener(e -> {
+            if (e.getType() == TableModelEvent.INSERT) {
+                sorter.rowsInserted(e.getFirstRow(), e.getLastRow());
+            } else if (e.getType() == TableModelEvent.DELETE) {
+                sorter.rowsDeleted(e.getFirstRow(), e.getLastRow());
+            } else {
+                sorter.allRowsChanged();
+            }
+        });
+    }
+
+    @Benchmark
+    public int renderTable() {
+        model.setRowCount(0);
+        for (Fixtures.Libro libro : libros) {
+            model.addRow(new Object[]{
+                libro.getIsbn(),
+                libro.getTitulo(),
+                libro.getAutor(),
+                libro.getCategoria(),
+                libro.isDisponible() ? "Disponible" : "Prestado"
+            });
+        }
+        return model.getRowCount();
+    }
+}
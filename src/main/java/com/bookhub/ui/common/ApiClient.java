@@ -1,35 +1,68 @@
 package main.java.com.bookhub.ui.common;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.lang.reflect.Type;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
 
 /**
  * Cliente HTTP para consumir la API REST desde Swing.
  * Ahora toma automáticamente la URL base desde application.properties.
+ * Todas las instancias comparten un transporte con pool de conexiones keep-alive.
+ * Cada llamada registra latencia, bytes y errores en ApiMetrics y pasa por
+ * la capa de resiliencia (limitador, circuito por endpoint y reintentos).
+ * Las respuestas se piden comprimidas (gzip/deflate) y se descomprimen en
+ * streaming camino del decodificador JSON.
  */
 public class ApiClient {
 
     private static final Gson gson = new Gson();
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+    private static final Properties props = new Properties();
     private static String BASE_URL;
+    private static final HttpTransport transport;
+    private static final ListResponseCache cache;
+    private static final SingleFlight singleFlight;
+    private static final Resilience resilience;
+    private static final boolean acceptCompression;
+    private static final boolean compressRequests;
+    private static final int compressMinBytes;
+    // El backend respondio 415 a un cuerpo comprimido: no se vuelve a intentar
+    private static volatile boolean compressionRejected;
 
 
     static {
         try (InputStream input = ApiClient.class.getClassLoader()
                 .getResourceAsStream("application.properties")) {
 
-            Properties props = new Properties();
             props.load(input);
 
             BASE_URL = props.getProperty("api.base.url");
@@ -48,6 +81,27 @@ public class ApiClient {
             System.err.println("⚠ Error cargando application.properties. Usando URL por defecto.");
             BASE_URL = "http://localhost:8080";
         }
+
+        transport = new HttpTransport(
+                getIntProperty("api.http.maxPerRoute", 8),
+                getIntProperty("api.http.maxTotal", 32),
+                getIntProperty("api.http.connectTimeoutMs", 3000),
+                getIntProperty("api.http.readTimeoutMs", 15000),
+                getIntProperty("api.http.leaseTimeoutMs", 5000),
+                getIntProperty("api.http.idleEvictSeconds", 30)
+        );
+
+        cache = new ListResponseCache(
+                getIntProperty("api.cache.maxEntries", 32),
+                getIntProperty("api.cache.ttlSeconds", 300) * 1000L
+        );
+
+        singleFlight = new SingleFlight(getBooleanProperty("api.coalescing.enabled", true));
+        resilience = Resilience.fromProperties("api");
+
+        acceptCompression = getBooleanProperty("api.compresion.enabled", true);
+        compressRequests = getBooleanProperty("api.compresion.peticiones", false);
+        compressMinBytes = getIntProperty("api.compresion.peticiones.minBytes", 2048);
     }
 
 
@@ -57,50 +111,310 @@ public class ApiClient {
         return BASE_URL;
     }
 
+    /**
+     * Lee una propiedad entera; una propiedad de sistema con la misma clave
+     * tiene prioridad sobre application.properties.
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = System.getProperty(key, props.getProperty(key));
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Advertencia: valor invalido para " + key + ". Usando " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Lee una propiedad de texto con la misma precedencia que getIntProperty.
+     */
+    public static String getProperty(String key, String defaultValue) {
+        String value = System.getProperty(key, props.getProperty(key));
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        return Boolean.parseBoolean(getProperty(key, String.valueOf(defaultValue)));
+    }
+
+    public static HttpTransport.Stats getPoolStats() {
+        return transport.getStats();
+    }
+
+    public static ListResponseCache.Stats getCacheStats() {
+        return cache.getStats();
+    }
+
+    public static SingleFlight.Stats getCoalescingStats() {
+        return singleFlight.getStats();
+    }
+
+    public static Resilience getResilience() {
+        return resilience;
+    }
+
+
+    private HttpRequestBase createRequest(String endpoint, String method) {
+        String url = BASE_URL + endpoint;
+        HttpRequestBase request = switch (method) {
+            case "POST" -> new HttpPost(url);
+            case "PUT" -> new HttpPut(url);
+            case "PATCH" -> new HttpPatch(url);
+            case "DELETE" -> new HttpDelete(url);
+            default -> new HttpGet(url);
+        };
+
+        request.setHeader("Accept", "application/json");
+        if (acceptCompression) {
+            request.setHeader("Accept-Encoding", ContentEncoding.ACCEPT);
+        }
+        return request;
+    }
+
+    private String readResponse(CloseableHttpResponse response, CallTrace trace) throws IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) return "";
+
+        // Consumir la entidad completa devuelve la conexion al pool
+        try (InputStream content = trace.open(entity)) {
+            return new String(content.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public <T> List<T> getList(String endpoint, Class<T> clazz) throws IOException {
+        List<T> result = new ArrayList<>();
+        streamList(endpoint, clazz, DEFAULT_CHUNK_SIZE, result::addAll);
+        return result;
+    }
+
+    /**
+     * Variante en streaming de getList: decodifica los elementos del arreglo JSON
+     * directamente desde el socket y los entrega al consumidor en bloques de
+     * chunkSize, sin materializar el cuerpo completo como String.
+     * Si hay una respuesta cacheada se revalida con If-None-Match/If-Modified-Since
+     * y, ante un 304, se entregan los objetos ya decodificados.
+     *
+     * Varias llamadas identicas simultaneas comparten una sola peticion (ver SingleFlight).
+     *
+     * @return numero total de elementos recibidos
+     */
+    public <T> int streamList(String endpoint, Class<T> clazz, int chunkSize, Consumer<List<T>> onChunk) throws IOException {
+        // Antes de SingleFlight y del circuito: en modo estricto es un error de
+        // programacion, no un fallo del backend
+        EdtWatchdog.checkNetworkCall("GET " + endpoint);
+        String key = clazz.getName() + " " + endpoint;
+        return singleFlight.stream(key, endpoint, onChunk, listLoader(key, endpoint, clazz, chunkSize));
+    }
+
+    private <T> SingleFlight.Loader<T> listLoader(String key, String endpoint, Class<T> clazz, int chunkSize) {
+        return sink -> {
+            // Solo se reintenta si el consumidor aun no recibio ningun bloque
+            boolean[] entregado = {false};
+            return resilience.execute("GET", endpoint, () -> fetchList(key, endpoint, clazz, chunkSize, chunk -> {
+                entregado[0] = true;
+                sink.accept(chunk);
+            }), total -> HttpStatus.SC_OK, () -> !entregado[0]);
+        };
+    }
+
+    private <T> int fetchList(String cacheKey, String endpoint, Class<T> clazz, int chunkSize,
+                              Consumer<List<T>> onChunk) throws IOException {
+        HttpRequestBase request = createRequest(endpoint, "GET");
+
+        ListResponseCache.Entry cached = cache.get(cacheKey);
+        if (cached != null) {
+            if (cached.etag != null) request.setHeader("If-None-Match", cached.etag);
+            if (cached.lastModified != null) request.setHeader("If-Modified-Since", cached.lastModified);
+        }
+
+        CallTrace trace = new CallTrace("GET", endpoint);
 
-    private HttpURLConnection createConnection(String endpoint, String method) throws IOException {
-        URL url = new URL(BASE_URL + endpoint);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        try (CloseableHttpResponse response = transport.execute(request)) {
+            int code = response.getStatusLine().getStatusCode();
+            trace.status = code;
 
-        conn.setRequestMethod(method);
-        conn.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-        conn.setRequestProperty("Accept", "application/json");
-        conn.setDoInput(true);
+            if (code == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+                cache.recordHit();
+                EntityUtils.consume(response.getEntity());
+                return deliverCached(cached, chunkSize, onChunk);
+            }
+            cache.recordMiss();
+
+            if (code >= 400) {
+                throw new Resilience.HttpStatusException(code, "Error (" + code + "): " + readResponse(response, trace));
+            }
+
+            HttpEntity entity = response.getEntity();
+            if (entity == null) return 0;
+
+            String etag = headerValue(response, "ETag");
+            String lastModified = headerValue(response, "Last-Modified");
+            boolean cacheable = etag != null || lastModified != null;
+
+            // Solo se acumula una copia si la respuesta puede revalidarse despues
+            List<T> decoded = cacheable ? new ArrayList<>() : null;
+            Consumer<List<T>> sink = !cacheable ? onChunk : chunk -> {
+                decoded.addAll(chunk);
+                onChunk.accept(chunk);
+            };
+
+            JsonReader reader = new JsonReader(new InputStreamReader(trace.open(entity), StandardCharsets.UTF_8));
+            JfrEvents.JsonDecode decodeEvent = JfrEvents.beginJsonDecode();
+            long decodeStart = System.nanoTime();
+            int total = decodeArray(reader, gson.getAdapter(clazz), chunkSize, sink);
+            trace.stats.recordDecode(System.nanoTime() - decodeStart);
+            JfrEvents.end(decodeEvent, endpoint, clazz, total);
+
+            // Drenar lo que quede (espacios finales) para que la conexion vuelva al pool
+            trace.drain();
+
+            if (cacheable) {
+                cache.put(cacheKey, endpoint, etag, lastModified, decoded);
+            } else {
+                cache.remove(cacheKey);
+            }
+            return total;
+        } finally {
+            trace.finish();
+        }
+    }
 
-        if (method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) {
-            conn.setDoOutput(true);
+    @SuppressWarnings("unchecked")
+    private <T> int deliverCached(ListResponseCache.Entry cached, int chunkSize, Consumer<List<T>> onChunk) {
+        List<T> items = (List<T>) cached.items;
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            int to = Math.min(items.size(), from + chunkSize);
+            onChunk.accept(new ArrayList<>(items.subList(from, to)));
         }
+        return items.size();
+    }
 
-        return conn;
+    /**
+     * Obtiene una pagina de un listado paginado en el servidor. El total de
+     * registros se toma de la cabecera X-Total-Count (-1 si no viene).
+     */
+    public <T> Page<T> getPage(String endpoint, Class<T> clazz) throws IOException {
+        EdtWatchdog.checkNetworkCall("GET " + endpoint);
+        return resilience.execute("GET", endpoint, () -> fetchPage(endpoint, clazz), page -> HttpStatus.SC_OK);
     }
 
-    private String readResponse(HttpURLConnection conn) throws IOException {
-        InputStream is = conn.getResponseCode() < 400
-                ? conn.getInputStream()
-                : conn.getErrorStream();
+    private <T> Page<T> fetchPage(String endpoint, Class<T> clazz) throws IOException {
+        HttpRequestBase request = createRequest(endpoint, "GET");
 
-        if (is == null) return "";
+        CallTrace trace = new CallTrace("GET", endpoint);
 
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
+        try (CloseableHttpResponse response = transport.execute(request)) {
+            int code = response.getStatusLine().getStatusCode();
+            trace.status = code;
+            if (code >= 400) {
+                throw new Resilience.HttpStatusException(code, "Error (" + code + "): " + readResponse(response, trace));
+            }
 
-            while ((line = br.readLine()) != null) {
-                sb.append(line);
+            List<T> items = new ArrayList<>();
+            HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                JsonReader reader = new JsonReader(new InputStreamReader(trace.open(entity), StandardCharsets.UTF_8));
+                JfrEvents.JsonDecode decodeEvent = JfrEvents.beginJsonDecode();
+                long decodeStart = System.nanoTime();
+                int decoded = decodeArray(reader, gson.getAdapter(clazz), DEFAULT_CHUNK_SIZE, items::addAll);
+                trace.stats.recordDecode(System.nanoTime() - decodeStart);
+                JfrEvents.end(decodeEvent, endpoint, clazz, decoded);
+                trace.drain();
             }
 
-            return sb.toString();
+            int total = -1;
+            String totalHeader = headerValue(response, "X-Total-Count");
+            if (totalHeader != null) {
+                try {
+                    total = Integer.parseInt(totalHeader.trim());
+                } catch (NumberFormatException ignored) {
+                    // cabecera mal formada: se trata como total desconocido
+                }
+            }
+            return new Page<>(items, total);
+        } finally {
+            trace.finish();
         }
     }
 
-    public <T> List<T> getList(String endpoint, Class<T> clazz) throws IOException {
-        HttpURLConnection conn = createConnection(endpoint, "GET");
-        conn.connect();
+    /**
+     * Pide a {coleccion}/cambios los registros modificados y eliminados desde la
+     * marca indicada (sin marca, solo la marca actual). Ver DeltaSync.
+     *
+     * @return null si el backend no lo soporta (404/405/501) o la marca caduco (410)
+     */
+    public <T> DeltaSync.Delta<T> getDelta(String coleccion, String desde, Class<T> clazz) throws IOException {
+        String endpoint = desde == null ? coleccion + "/cambios"
+                : coleccion + "/cambios?desde=" + URLEncoder.encode(desde, StandardCharsets.UTF_8);
+        EdtWatchdog.checkNetworkCall("GET " + endpoint);
+        return resilience.execute("GET", endpoint, () -> fetchDelta(endpoint, clazz), delta -> HttpStatus.SC_OK);
+    }
+
+    private <T> DeltaSync.Delta<T> fetchDelta(String endpoint, Class<T> clazz) throws IOException {
+        HttpRequestBase request = createRequest(endpoint, "GET");
+
+        CallTrace trace = new CallTrace("GET", endpoint);
+
+        try (CloseableHttpResponse response = transport.execute(request)) {
+            int code = response.getStatusLine().getStatusCode();
+            trace.status = code;
+            if (code == HttpStatus.SC_NOT_FOUND || code == HttpStatus.SC_METHOD_NOT_ALLOWED
+                    || code == HttpStatus.SC_NOT_IMPLEMENTED || code == HttpStatus.SC_GONE) {
+                readResponse(response, trace);
+                return null;
+            }
+            if (code >= 400) {
+                throw new Resilience.HttpStatusException(code, "Error (" + code + "): " + readResponse(response, trace));
+            }
+
+            HttpEntity entity = response.getEntity();
+            if (entity == null) return null;
+
+            JsonReader reader = new JsonReader(new InputStreamReader(trace.open(entity), StandardCharsets.UTF_8));
+            JfrEvents.JsonDecode decodeEvent = JfrEvents.beginJsonDecode();
+            long decodeStart = System.nanoTime();
+            DeltaSync.Delta<T> delta = DeltaSync.Delta.read(reader, gson.getAdapter(clazz));
+            trace.stats.recordDecode(System.nanoTime() - decodeStart);
+            JfrEvents.end(decodeEvent, endpoint, clazz, delta.cambios.size());
+            trace.drain();
+            return delta;
+        } finally {
+            trace.finish();
+        }
+    }
+
+    private static String headerValue(CloseableHttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    private <T> int decodeArray(JsonReader reader, TypeAdapter<T> adapter, int chunkSize,
+                                Consumer<List<T>> onChunk) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return 0;
+        }
+
+        int total = 0;
+        List<T> chunk = new ArrayList<>(chunkSize);
 
-        String json = readResponse(conn);
-        Type listType = TypeToken.getParameterized(List.class, clazz).getType();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            chunk.add(adapter.read(reader));
+            total++;
+
+            if (chunk.size() >= chunkSize) {
+                onChunk.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        reader.endArray();
 
-        return gson.fromJson(json, listType);
+        if (!chunk.isEmpty()) {
+            onChunk.accept(chunk);
+        }
+        return total;
     }
 
     public ApiResponse post(String endpoint, Object body) throws IOException {
@@ -116,27 +430,191 @@ public class ApiClient {
     }
 
     public ApiResponse delete(String endpoint) throws IOException {
-        HttpURLConnection conn = createConnection(endpoint, "DELETE");
-        conn.connect();
+        EdtWatchdog.checkNetworkCall("DELETE " + endpoint);
+        return resilience.execute("DELETE", endpoint, () -> doDelete(endpoint), resp -> resp.status);
+    }
+
+    private ApiResponse doDelete(String endpoint) throws IOException {
+        HttpRequestBase request = createRequest(endpoint, "DELETE");
+
+        CallTrace trace = new CallTrace("DELETE", endpoint);
 
-        int code = conn.getResponseCode();
-        String body = readResponse(conn);
+        try (CloseableHttpResponse response = transport.execute(request)) {
+            int code = response.getStatusLine().getStatusCode();
+            trace.status = code;
+            String body = readResponse(response, trace);
 
-        return new ApiResponse(code, body);
+            return new ApiResponse(code, body);
+        } finally {
+            trace.finish();
+            cache.invalidate(endpoint);
+            singleFlight.invalidate(endpoint);
+        }
     }
 
     private ApiResponse sendWithBody(String method, String endpoint, Object bodyObj) throws IOException {
-        HttpURLConnection conn = createConnection(endpoint, method);
+        EdtWatchdog.checkNetworkCall(method + " " + endpoint);
+        return resilience.execute(method, endpoint, () -> doSend(method, endpoint, bodyObj), resp -> resp.status);
+    }
+
+    private ApiResponse doSend(String method, String endpoint, Object bodyObj) throws IOException {
+        byte[] json = gson.toJson(bodyObj).getBytes(StandardCharsets.UTF_8);
+        boolean gzip = compressRequests && !compressionRejected && json.length >= compressMinBytes;
+
+        ApiResponse resp = doSend(method, endpoint, json, gzip);
+        if (gzip && resp.status == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE) {
+            // El backend no acepta Content-Encoding en peticiones: se reenvia sin comprimir
+            compressionRejected = true;
+            resp = doSend(method, endpoint, json, false);
+        }
+        return resp;
+    }
+
+    private ApiResponse doSend(String method, String endpoint, byte[] json, boolean gzip) throws IOException {
+        HttpEntityEnclosingRequestBase request = (HttpEntityEnclosingRequestBase) createRequest(endpoint, method);
+
+        ByteArrayEntity entity = new ByteArrayEntity(gzip ? ContentEncoding.gzip(json) : json, ContentType.APPLICATION_JSON);
+        if (gzip) {
+            entity.setContentEncoding("gzip");
+        }
+        request.setEntity(entity);
+
+        CallTrace trace = new CallTrace(method, endpoint);
+        trace.bytesOut = entity.getContentLength();
+        trace.rawOut = json.length;
+
+        try (CloseableHttpResponse response = transport.execute(request)) {
+            int code = response.getStatusLine().getStatusCode();
+            trace.status = code;
+            String resp = readResponse(response, trace);
+
+            return new ApiResponse(code, resp);
+        } finally {
+            trace.finish();
+            cache.invalidate(endpoint);
+            singleFlight.invalidate(endpoint);
+        }
+    }
+
+    // ---- API asincrona: corre en ApiExecutors.background() ----
+
+    public <T> CompletableFuture<List<T>> getListAsync(String endpoint, Class<T> clazz) {
+        // Los bloques llegan de uno en uno, nunca en paralelo
+        List<T> result = new ArrayList<>();
+        return streamListAsync(endpoint, clazz, DEFAULT_CHUNK_SIZE, result::addAll).thenApply(total -> result);
+    }
+
+    public <T> CompletableFuture<Page<T>> getPageAsync(String endpoint, Class<T> clazz) {
+        return async(() -> getPage(endpoint, clazz));
+    }
+
+    /**
+     * Version asincrona de streamList. El consumidor se invoca en el hilo de fondo;
+     * quien necesite tocar Swing debe reenviar cada bloque al EDT.
+     * Si ya hay una descarga igual en curso no se ocupa ningun hilo esperandola.
+     */
+    public <T> CompletableFuture<Integer> streamListAsync(String endpoint, Class<T> clazz, int chunkSize,
+                                                          Consumer<List<T>> onChunk) {
+        String key = clazz.getName() + " " + endpoint;
+        return singleFlight.streamAsync(key, endpoint, onChunk, listLoader(key, endpoint, clazz, chunkSize),
+                ApiExecutors.background());
+    }
+
+    public <T> CompletableFuture<DeltaSync.Delta<T>> getDeltaAsync(String coleccion, String desde, Class<T> clazz) {
+        return async(() -> getDelta(coleccion, desde, clazz));
+    }
+
+    public CompletableFuture<ApiResponse> postAsync(String endpoint, Object body) {
+        return async(() -> post(endpoint, body));
+    }
+
+    public CompletableFuture<ApiResponse> putAsync(String endpoint, Object body) {
+        return async(() -> put(endpoint, body));
+    }
+
+    public CompletableFuture<ApiResponse> patchAsync(String endpoint, Object body) {
+        return async(() -> patch(endpoint, body));
+    }
+
+    public CompletableFuture<ApiResponse> deleteAsync(String endpoint) {
+        return async(() -> delete(endpoint));
+    }
+
+    private <R> CompletableFuture<R> async(IoCall<R> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.run();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, ApiExecutors.background());
+    }
 
-        String jsonBody = gson.toJson(bodyObj);
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(jsonBody.getBytes(StandardCharsets.UTF_8));
+    @FunctionalInterface
+    private interface IoCall<R> {
+        R run() throws IOException;
+    }
+
+    /**
+     * Mide una llamada de principio a fin: alimenta ApiMetrics y, si esta
+     * activo, el evento JFR bookhub.HttpRequest.
+     */
+    private static final class CallTrace {
+        final String method;
+        final String endpoint;
+        final ApiMetrics.EndpointStats stats;
+        final JfrEvents.HttpRequest event = JfrEvents.beginHttpRequest();
+        final long start = System.nanoTime();
+        int status = ApiMetrics.IO_ERROR;
+        long bytesIn;
+        long bytesOut;
+        long rawOut;
+        private CountingInputStream wire;
+        private CountingInputStream body;
+
+        CallTrace(String method, String endpoint) {
+            this.method = method;
+            this.endpoint = endpoint;
+            this.stats = ApiMetrics.forEndpoint(method, endpoint);
+        }
+
+        /**
+         * Abre el cuerpo de la respuesta descomprimiendolo segun Content-Encoding.
+         * Cuenta por separado los bytes de la red y los entregados al decodificador.
+         */
+        InputStream open(HttpEntity entity) throws IOException {
+            wire = new CountingInputStream(entity.getContent());
+            Header encoding = entity.getContentEncoding();
+            body = new CountingInputStream(ContentEncoding.decode(wire, encoding != null ? encoding.getValue() : null));
+            return body;
+        }
+
+        /** Lee y cierra lo que quede del cuerpo (espacios finales, cola gzip). */
+        void drain() throws IOException {
+            if (body == null) return;
+            try (InputStream in = body) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
         }
 
-        int code = conn.getResponseCode();
-        String resp = readResponse(conn);
+        void finish() {
+            if (wire != null) bytesIn += wire.getCount();
+            long decodedIn = body != null ? body.getCount() : bytesIn;
+            stats.recordCall(System.nanoTime() - start, status);
+            stats.recordBytes(bytesIn, bytesOut);
+            stats.recordPayload(decodedIn, rawOut);
+            JfrEvents.end(event, method, endpoint, status, bytesIn, bytesOut);
+        }
+    }
 
-        return new ApiResponse(code, resp);
+    public static class Page<T> {
+        public final List<T> items;
+        public final int total;
+
+        public Page(List<T> items, int total) {
+            this.items = items;
+            this.total = total;
+        }
     }
 
     public static class ApiResponse {
@@ -151,5 +629,15 @@ public class ApiClient {
         public boolean isSuccess() {
             return status >= 200 && status < 300;
         }
+
+        /** Decodifica el cuerpo JSON; devuelve null si esta vacio o no tiene la forma esperada. */
+        public <T> T bodyAs(Class<T> clazz) {
+            if (body == null || body.isBlank()) return null;
+            try {
+                return gson.fromJson(body, clazz);
+            } catch (JsonParseException e) {
+                return null;
+            }
+        }
     }
 }
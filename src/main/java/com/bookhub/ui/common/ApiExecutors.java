@@ -0,0 +1,65 @@
+package main.java.com.bookhub.ui.common;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecutores compartidos para las llamadas asincronas a la API.
+ * Las peticiones corren en un pool acotado de hilos daemon (el proyecto compila
+ * con Java 17, sin hilos virtuales) y los resultados vuelven a Swing por el EDT.
+ */
+public final class ApiExecutors {
+
+    private static final ExecutorService BACKGROUND = createBackground();
+    private static final Executor EDT = SwingUtilities::invokeLater;
+
+    private ApiExecutors() {}
+
+    /** Pool acotado donde se ejecutan las peticiones HTTP. */
+    public static Executor background() {
+        return BACKGROUND;
+    }
+
+    /** Ejecutor que entrega las tareas al Event Dispatch Thread. */
+    public static Executor edt() {
+        return EDT;
+    }
+
+    /** Extrae la causa real de las excepciones envoltorio de CompletableFuture. */
+    public static Throwable unwrap(Throwable t) {
+        Throwable current = t;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    private static ExecutorService createBackground() {
+        int threads = ApiClient.getIntProperty("api.async.threads", 4);
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread t = new Thread(runnable, "bookhub-api-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                factory
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
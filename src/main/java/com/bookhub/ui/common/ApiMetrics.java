@@ -0,0 +1,193 @@
+package main.java.com.bookhub.ui.common;
+
+import com.google.gson.GsonBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metricas por metodo y plantilla de endpoint (por ejemplo "DELETE /libros/{isbn}").
+ * Todo se registra con contadores atomicos e histogramas sin bloqueos, de modo
+ * que instrumentar cada llamada cuesta unos pocos incrementos.
+ */
+public final class ApiMetrics {
+
+    /** Estado usado cuando la llamada fallo sin respuesta HTTP (timeout, conexion). */
+    public static final int IO_ERROR = -1;
+
+    private static final ConcurrentHashMap<String, EndpointStats> STATS = new ConcurrentHashMap<>();
+
+    private ApiMetrics() {}
+
+    public static EndpointStats forEndpoint(String method, String endpoint) {
+        return STATS.computeIfAbsent(template(method, endpoint), EndpointStats::new);
+    }
+
+    /** Estadisticas ordenadas por endpoint. */
+    public static List<EndpointStats> all() {
+        List<EndpointStats> list = new ArrayList<>(STATS.values());
+        list.sort(Comparator.comparing(s -> s.key));
+        return list;
+    }
+
+    /**
+     * Normaliza la ruta: quita la query y sustituye los segmentos con digitos
+     * por {isbn} (bajo /libros) o {id}.
+     */
+    public static String template(String method, String endpoint) {
+        String path = endpoint;
+        int query = path.indexOf('?');
+        if (query >= 0) path = path.substring(0, query);
+
+        String[] segments = path.split("/");
+        StringBuilder sb = new StringBuilder(method).append(' ');
+        for (int i = 1; i < segments.length; i++) {
+            String segment = segments[i];
+            sb.append('/');
+            if (i > 1 && segment.chars().anyMatch(Character::isDigit)) {
+                sb.append("libros".equals(segments[i - 1]) ? "{isbn}" : "{id}");
+            } else {
+                sb.append(segment);
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Exporta todas las metricas (mas pool y cache) como JSON legible. */
+    public static String toJson() {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("generado", java.time.Instant.now().toString());
+        root.put("pool", ApiClient.getPoolStats());
+        root.put("cache", ApiClient.getCacheStats());
+        root.put("agrupacion", ApiClient.getCoalescingStats());
+        List<Resilience.Stats> resiliencia = new ArrayList<>();
+        for (Resilience r : Resilience.all()) {
+            resiliencia.add(r.getStats());
+        }
+        root.put("resiliencia", resiliencia);
+        root.put("eventos", LiveUpdates.getDefault().getStats());
+
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointStats s : all()) {
+            endpoints.add(s.toMap());
+        }
+        root.put("endpoints", endpoints);
+        root.put("edtBloqueos", sites(EdtWatchdog.getStalls()));
+        root.put("edtLlamadasDeRed", sites(EdtWatchdog.getNetworkCalls()));
+        return new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(root);
+    }
+
+    private static List<Map<String, Object>> sites(List<EdtWatchdog.Site> sites) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (EdtWatchdog.Site site : sites) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("sitio", site.callSite);
+            m.put("veces", site.count.sum());
+            if (site.durations.count() > 0) {
+                m.put("p95Ms", site.durations.percentileMillis(95));
+                m.put("maxMs", site.durations.maxMillis());
+            }
+            m.put("pila", site.getStack().stream().map(String::valueOf).toList());
+            result.add(m);
+        }
+        return result;
+    }
+
+    /**
+     * Contadores de un endpoint.
+     */
+    public static class EndpointStats {
+        public final String key;
+        public final LatencyHistogram latency = new LatencyHistogram();
+        public final LatencyHistogram decode = new LatencyHistogram();
+
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder decodedIn = new LongAdder();
+        private final LongAdder rawOut = new LongAdder();
+        private final ConcurrentHashMap<Integer, LongAdder> errors = new ConcurrentHashMap<>();
+
+        EndpointStats(String key) {
+            this.key = key;
+        }
+
+        /** Registra una llamada completa; status es el codigo HTTP o IO_ERROR. */
+        public void recordCall(long nanos, int status) {
+            latency.recordNanos(nanos);
+            if (status >= 400 || status == IO_ERROR) {
+                errors.computeIfAbsent(status, s -> new LongAdder()).increment();
+            }
+        }
+
+        public void recordDecode(long nanos) {
+            decode.recordNanos(nanos);
+        }
+
+        public void recordBytes(long in, long out) {
+            if (in > 0) bytesIn.add(in);
+            if (out > 0) bytesOut.add(out);
+        }
+
+        /**
+         * Tamano de los cuerpos sin comprimir; junto con recordBytes (lo que
+         * viaja por la red) mide el ahorro de la compresion.
+         */
+        public void recordPayload(long in, long out) {
+            if (in > 0) decodedIn.add(in);
+            if (out > 0) rawOut.add(out);
+        }
+
+        public long bytesIn() {
+            return bytesIn.sum();
+        }
+
+        public long bytesOut() {
+            return bytesOut.sum();
+        }
+
+        public long decodedIn() {
+            return decodedIn.sum();
+        }
+
+        public long rawOut() {
+            return rawOut.sum();
+        }
+
+        /** Fraccion de bytes ahorrada por la compresion en ambos sentidos (0 si no hubo). */
+        public double compressionSavings() {
+            long plain = decodedIn() + rawOut();
+            return plain == 0 ? 0.0 : Math.max(0.0, 1.0 - (double) (bytesIn() + bytesOut()) / plain);
+        }
+
+        /** Errores por codigo; IO_ERROR agrupa fallos sin respuesta. */
+        public Map<Integer, Long> errorsByStatus() {
+            Map<Integer, Long> result = new TreeMap<>();
+            errors.forEach((status, count) -> result.put(status, count.sum()));
+            return result;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("endpoint", key);
+            m.put("llamadas", latency.count());
+            m.put("p50Ms", latency.percentileMillis(50));
+            m.put("p95Ms", latency.percentileMillis(95));
+            m.put("p99Ms", latency.percentileMillis(99));
+            m.put("maxMs", latency.maxMillis());
+            m.put("decodificacionP95Ms", decode.percentileMillis(95));
+            m.put("bytesRecibidos", bytesIn());
+            m.put("bytesEnviados", bytesOut());
+            m.put("bytesRecibidosDescomprimidos", decodedIn());
+            m.put("bytesEnviadosSinComprimir", rawOut());
+            m.put("ahorroCompresion", Math.round(compressionSavings() * 1000) / 1000.0);
+            m.put("errores", errorsByStatus());
+            return m;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package main.java.com.bookhub.ui.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Ejecuta una operacion de la API sobre muchos elementos con un maximo de
+ * peticiones en vuelo. Cada elemento se lanza cuando termina otro (sin hilos
+ * bloqueados esperando turno) y los resultados se reunen en un unico resumen,
+ * en el mismo orden que la lista de entrada.
+ */
+public final class BulkRunner {
+
+    private BulkRunner() {}
+
+    /**
+     * @param call       operacion asincrona por elemento; una respuesta no 2xx cuenta como fallo
+     * @param onProgress recibe el numero de elementos terminados (en un hilo de fondo)
+     */
+    public static <T> CompletableFuture<Result<T>> run(List<T> items, int maxInFlight,
+                                                       Function<T, CompletableFuture<ApiClient.ApiResponse>> call,
+                                                       IntConsumer onProgress) {
+        CompletableFuture<Result<T>> done = new CompletableFuture<>();
+        if (items.isEmpty()) {
+            done.complete(new Result<>(List.of()));
+            return done;
+        }
+
+        AtomicReferenceArray<Outcome<T>> outcomes = new AtomicReferenceArray<>(items.size());
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger finished = new AtomicInteger();
+
+        Runnable[] launch = new Runnable[1];
+        launch[0] = () -> {
+            int index = next.getAndIncrement();
+            if (index >= items.size()) return;
+
+            T item = items.get(index);
+            CompletableFuture<ApiClient.ApiResponse> future;
+            try {
+                future = call.apply(item);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            // Async: un fallo inmediato no encadena lanzamientos en la misma pila
+            future.whenCompleteAsync((resp, error) -> {
+                outcomes.set(index, Outcome.of(item, resp, error));
+                int count = finished.incrementAndGet();
+                onProgress.accept(count);
+                if (count == items.size()) {
+                    done.complete(new Result<>(toList(outcomes)));
+                } else {
+                    launch[0].run();
+                }
+            }, ApiExecutors.background());
+        };
+
+        for (int i = 0; i < Math.min(Math.max(1, maxInFlight), items.size()); i++) {
+            launch[0].run();
+        }
+        return done;
+    }
+
+    private static <T> List<Outcome<T>> toList(AtomicReferenceArray<Outcome<T>> outcomes) {
+        List<Outcome<T>> all = new ArrayList<>(outcomes.length());
+        for (int i = 0; i < outcomes.length(); i++) {
+            all.add(outcomes.get(i));
+        }
+        return all;
+    }
+
+    /**
+     * Resultado de un elemento: la respuesta si llego, o el motivo del fallo.
+     */
+    public static class Outcome<T> {
+        public final T item;
+        public final ApiClient.ApiResponse response;
+        public final String error;
+
+        Outcome(T item, ApiClient.ApiResponse response, String error) {
+            this.item = item;
+            this.response = response;
+            this.error = error;
+        }
+
+        static <T> Outcome<T> of(T item, ApiClient.ApiResponse response, Throwable failure) {
+            if (failure != null) {
+                return new Outcome<>(item, null, ApiExecutors.unwrap(failure).getMessage());
+            }
+            if (!response.isSuccess()) {
+                String body = response.body != null && !response.body.isBlank() ? response.body.trim() : "sin detalle";
+                return new Outcome<>(item, response, "Error (" + response.status + "): " + body);
+            }
+            return new Outcome<>(item, response, null);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Resumen de toda la operacion.
+     */
+    public static class Result<T> {
+        public final List<Outcome<T>> outcomes;
+
+        Result(List<Outcome<T>> outcomes) {
+            this.outcomes = outcomes;
+        }
+
+        public List<Outcome<T>> succeeded() {
+            List<Outcome<T>> result = new ArrayList<>();
+            for (Outcome<T> o : outcomes) {
+                if (o.isSuccess()) result.add(o);
+            }
+            return result;
+        }
+
+        public List<Outcome<T>> failed() {
+            List<Outcome<T>> result = new ArrayList<>();
+            for (Outcome<T> o : outcomes) {
+                if (!o.isSuccess()) result.add(o);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package main.java.com.bookhub.ui.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compresion del cuerpo HTTP (gzip y deflate) hecha a mano en lugar de dejarla
+ * al cliente HTTP, para poder contar los bytes que viajan por la red y los
+ * que llegan ya descomprimidos al decodificador JSON. La descompresion se hace
+ * en streaming sobre el socket: nunca se guarda el cuerpo completo.
+ */
+public final class ContentEncoding {
+
+    /** Valor de Accept-Encoding que envian los clientes. */
+    public static final String ACCEPT = "gzip, deflate";
+
+    private static final int BUFFER = 8192;
+
+    private ContentEncoding() {}
+
+    /**
+     * Envuelve el cuerpo segun su Content-Encoding. Sin cabecera o con
+     * "identity" lo devuelve tal cual; una codificacion desconocida es un error
+     * porque el JSON llegaria ilegible.
+     */
+    public static InputStream decode(InputStream wire, String contentEncoding) throws IOException {
+        if (contentEncoding == null) return wire;
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (encoding.isEmpty() || encoding.equals("identity")) return wire;
+        if (!encoding.equals("gzip") && !encoding.equals("x-gzip") && !encoding.equals("deflate")) {
+            throw new IOException("Codificacion de contenido no soportada: " + contentEncoding);
+        }
+
+        // Cuerpo vacio (p. ej. un error sin detalle): no hay cabecera que leer
+        PushbackInputStream in = new PushbackInputStream(wire, 2);
+        byte[] head = new byte[2];
+        int n = in.readNBytes(head, 0, 2);
+        if (n == 0) return in;
+        in.unread(head, 0, n);
+
+        if (!encoding.equals("deflate")) {
+            return new GZIPInputStream(in, BUFFER);
+        }
+        // "deflate" deberia ser zlib (RFC 1950), pero algunos servidores envian el
+        // flujo sin cabecera; se distingue por los dos primeros bytes
+        boolean zlib = n == 2
+                && (head[0] & 0x0F) == 8
+                && (((head[0] & 0xFF) << 8) | (head[1] & 0xFF)) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(in, inflater, BUFFER) {
+            @Override
+            public void close() throws IOException {
+                // Un Inflater propio no lo libera InflaterInputStream
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    /** Comprime con gzip un cuerpo de peticion. */
+    public static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out, BUFFER)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+}
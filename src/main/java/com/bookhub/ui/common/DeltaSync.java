@@ -0,0 +1,181 @@
+package main.java.com.bookhub.ui.common;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Sincronizacion incremental de una coleccion contra {coleccion}/cambios.
+ *
+ * Protocolo: GET {coleccion}/cambios?desde={marca} devuelve
+ * {"marca": "...", "cambios": [...], "eliminados": ["clave", ...]} con los
+ * registros creados o modificados y las claves borradas desde la marca. Sin
+ * desde solo devuelve la marca actual, que se pide antes de cada carga completa
+ * para no perder cambios ocurridos mientras se descargaba el listado.
+ * Un 404/405/501 indica que el backend no lo soporta y un 410 que la marca
+ * caduco; en ambos casos se vuelve a la carga completa.
+ *
+ * Solo se usa desde el EDT, salvo las lecturas de la marca.
+ */
+public class DeltaSync {
+
+    private static final boolean ENABLED = ApiClient.getBooleanProperty("sync.delta.enabled", true);
+
+    private final String coleccion;
+    private volatile String marca;
+    private volatile boolean soportado = ENABLED;
+
+    public DeltaSync(String coleccion) {
+        this.coleccion = coleccion;
+    }
+
+    public String getColeccion() {
+        return coleccion;
+    }
+
+    public String getMarca() {
+        return marca;
+    }
+
+    /** Hay marca vigente: el siguiente refresco puede pedir solo los cambios. */
+    public boolean puedeIncremental() {
+        return soportado && marca != null;
+    }
+
+    /** La proxima carga completa debe pedir antes la marca actual. */
+    public boolean debePedirMarca() {
+        return soportado && marca == null;
+    }
+
+    /**
+     * Registra el resultado de pedir la marca o los cambios. Un delta null
+     * (backend sin soporte o marca caducada) obliga a una carga completa.
+     *
+     * @param inicial true si era la peticion de marca previa a una carga completa
+     */
+    public void registrar(Delta<?> delta, boolean inicial) {
+        if (delta == null || delta.marca == null) {
+            marca = null;
+            if (inicial) {
+                // Sin soporte en el backend: no se vuelve a preguntar en esta sesion
+                soportado = false;
+            }
+            return;
+        }
+        marca = delta.marca;
+    }
+
+    /**
+     * Avanza la marca tras aplicar cambios empujados por el servidor; sin
+     * marca previa no hace nada, porque la lista aun no esta sincronizada.
+     */
+    public void avanzar(String nueva) {
+        if (soportado && nueva != null && marca != null) {
+            marca = nueva;
+        }
+    }
+
+    /** Descarta la marca, p. ej. si la carga completa que la acompanaba fallo. */
+    public void invalidar() {
+        marca = null;
+    }
+
+    /**
+     * Aplica un delta sobre la lista actual: los modificados se sustituyen en su
+     * posicion, los nuevos se agregan al final y los eliminados desaparecen.
+     * Las claves se comparan como texto, igual que llegan en "eliminados".
+     */
+    public static <V> List<V> merge(List<V> actuales, Delta<V> delta, Function<V, ?> keyFn) {
+        if (delta.isEmpty()) return actuales;
+
+        Map<String, V> cambios = new HashMap<>(delta.cambios.size() * 2);
+        for (V item : delta.cambios) {
+            cambios.put(String.valueOf(keyFn.apply(item)), item);
+        }
+        Set<String> eliminados = new HashSet<>(delta.eliminados);
+
+        List<V> resultado = new ArrayList<>(actuales.size() + cambios.size());
+        for (V item : actuales) {
+            String key = String.valueOf(keyFn.apply(item));
+            if (eliminados.contains(key)) continue;
+            V nuevo = cambios.remove(key);
+            resultado.add(nuevo != null ? nuevo : item);
+        }
+        for (V item : delta.cambios) {
+            // Los que quedan en el mapa no estaban en la lista: altas
+            String key = String.valueOf(keyFn.apply(item));
+            if (cambios.remove(key) != null && !eliminados.contains(key)) {
+                resultado.add(item);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Respuesta de {coleccion}/cambios.
+     */
+    public static class Delta<T> {
+        public final String marca;
+        public final List<T> cambios;
+        public final List<String> eliminados;
+
+        public Delta(String marca, List<T> cambios, List<String> eliminados) {
+            this.marca = marca;
+            this.cambios = cambios;
+            this.eliminados = eliminados;
+        }
+
+        public boolean isEmpty() {
+            return cambios.isEmpty() && eliminados.isEmpty();
+        }
+
+        /** Decodifica el objeto en streaming; los campos pueden venir en cualquier orden. */
+        public static <T> Delta<T> read(JsonReader reader, TypeAdapter<T> adapter) throws IOException {
+            String marca = null;
+            List<T> cambios = Collections.emptyList();
+            List<String> eliminados = Collections.emptyList();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "marca" -> marca = reader.nextString();
+                    case "cambios" -> {
+                        cambios = new ArrayList<>();
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            cambios.add(adapter.read(reader));
+                        }
+                        reader.endArray();
+                    }
+                    case "eliminados" -> {
+                        eliminados = new ArrayList<>();
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            // nextString tambien acepta ids numericos
+                            eliminados.add(reader.nextString());
+                        }
+                        reader.endArray();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new Delta<>(marca, cambios, eliminados);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package main.java.com.bookhub.ui.common;
+
+import javax.swing.AbstractAction;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JRootPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.KeyStroke;
+import javax.swing.Timer;
+import javax.swing.table.DefaultTableModel;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.GridLayout;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Ventana de diagnostico con la latencia por endpoint (p50/p95/p99), bytes
+ * (en la red y el ahorro por compresion), errores por codigo y el estado del pool y la cache. Se abre con Ctrl+Shift+D
+ * desde cualquier ventana que llame a install().
+ */
+public class DiagnosticsFrame extends JFrame {
+
+    private static final String[] COLUMNS = {
+            "Endpoint", "Llamadas", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)",
+            "Decod. p95 (ms)", "Recibido", "Enviado", "Compresion", "Errores", "Circuito"
+    };
+    private static final int REFRESH_MS = 1000;
+
+    private static DiagnosticsFrame instance;
+
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+    private final JLabel poolLabel = new JLabel();
+    private final JLabel cacheLabel = new JLabel();
+    private final JLabel edtLabel = new JLabel();
+    private final JLabel eventosLabel = new JLabel();
+    private final JLabel resilienciaLabel = new JLabel();
+    private final Timer refreshTimer = new Timer(REFRESH_MS, e -> refresh());
+
+    /** Registra el atajo Ctrl+Shift+D en la ventana indicada. */
+    public static void install(JRootPane root) {
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(
+                KeyStroke.getKeyStroke(KeyEvent.VK_D, KeyEvent.CTRL_DOWN_MASK | KeyEvent.SHIFT_DOWN_MASK),
+                "diagnostico");
+        root.getActionMap().put("diagnostico", new AbstractAction() {
+            @Override public void actionPerformed(java.awt.event.ActionEvent e) { showWindow(); }
+        });
+    }
+
+    /** Muestra la ventana (una sola instancia por aplicacion). */
+    public static void showWindow() {
+        if (instance == null) {
+            instance = new DiagnosticsFrame();
+        }
+        instance.setVisible(true);
+        instance.toFront();
+    }
+
+    private DiagnosticsFrame() {
+        setTitle("Diagnostico de la API");
+        setSize(1000, 400);
+        setLocationByPlatform(true);
+        setDefaultCloseOperation(JFrame.HIDE_ON_CLOSE);
+
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(220);
+        table.getColumnModel().getColumn(9).setPreferredWidth(160);
+
+        JPanel status = new JPanel(new GridLayout(5, 1));
+        status.add(poolLabel);
+        status.add(cacheLabel);
+        status.add(edtLabel);
+        status.add(eventosLabel);
+        status.add(resilienciaLabel);
+
+        JButton btnExport = new JButton("Exportar JSON");
+        btnExport.addActionListener(e -> exportJson());
+        JButton btnRefresh = new JButton("Actualizar");
+        btnRefresh.addActionListener(e -> refresh());
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(btnRefresh);
+        buttons.add(btnExport);
+
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(status, BorderLayout.CENTER);
+        south.add(buttons, BorderLayout.EAST);
+
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(south, BorderLayout.SOUTH);
+
+        // Solo se refresca mientras la ventana esta visible
+        addWindowListener(new WindowAdapter() {
+            @Override public void windowOpened(WindowEvent e) { refreshTimer.start(); }
+            @Override public void windowActivated(WindowEvent e) { refreshTimer.start(); }
+            @Override public void windowClosing(WindowEvent e) { refreshTimer.stop(); }
+        });
+
+        refresh();
+    }
+
+    private void refresh() {
+        List<ApiMetrics.EndpointStats> stats = ApiMetrics.all();
+
+        // Actualiza en sitio para no perder la seleccion ni el orden elegido
+        if (model.getRowCount() != stats.size()) {
+            model.setRowCount(stats.size());
+        }
+        for (int i = 0; i < stats.size(); i++) {
+            ApiMetrics.EndpointStats s = stats.get(i);
+            Object[] row = {
+                    s.key,
+                    s.latency.count(),
+                    format(s.latency.percentileMillis(50)),
+                    format(s.latency.percentileMillis(95)),
+                    format(s.latency.percentileMillis(99)),
+                    format(s.latency.maxMillis()),
+                    s.decode.count() == 0 ? "-" : format(s.decode.percentileMillis(95)),
+                    formatBytes(s.bytesIn()),
+                    formatBytes(s.bytesOut()),
+                    formatSavings(s),
+                    formatErrors(s.errorsByStatus()),
+                    circuitState(s.key)
+            };
+            for (int c = 0; c < row.length; c++) {
+                if (!row[c].equals(model.getValueAt(i, c))) {
+                    model.setValueAt(row[c], i, c);
+                }
+            }
+        }
+
+        poolLabel.setText("Pool HTTP: " + ApiClient.getPoolStats());
+        cacheLabel.setText("Cache: " + ApiClient.getCacheStats() + "   Agrupacion: " + ApiClient.getCoalescingStats());
+        edtLabel.setText(edtSummary());
+        eventosLabel.setText("Eventos en vivo: " + LiveUpdates.getDefault().getStats());
+        resilienciaLabel.setText("Resiliencia: " + Resilience.all().stream()
+                .map(r -> r.getStats().toString()).collect(Collectors.joining("   ")));
+    }
+
+    private static String circuitState(String key) {
+        for (Resilience r : Resilience.all()) {
+            String state = r.stateOf(key);
+            if (state != null) return state;
+        }
+        return "-";
+    }
+
+    private static String edtSummary() {
+        if (!EdtWatchdog.isInstalled()) return "EDT: vigilante no instalado";
+
+        List<EdtWatchdog.Site> stalls = EdtWatchdog.getStalls();
+        long network = EdtWatchdog.getNetworkCalls().stream().mapToLong(s -> s.count.sum()).sum();
+        StringBuilder sb = new StringBuilder("EDT: red en EDT=").append(network)
+                .append(" bloqueos=").append(stalls.stream().mapToLong(s -> s.count.sum()).sum());
+        if (!stalls.isEmpty()) {
+            EdtWatchdog.Site worst = stalls.get(0);
+            sb.append(" peor=").append(worst.callSite)
+                    .append(" p95=").append(format(worst.durations.percentileMillis(95))).append(" ms");
+        }
+        return sb.toString();
+    }
+
+    private void exportJson() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("bookhub-metricas.json"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        try {
+            Files.writeString(chooser.getSelectedFile().toPath(), ApiMetrics.toJson(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "No se pudo exportar: " + ex.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private static String format(double millis) {
+        return String.format("%.1f", millis);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /** Ahorro frente al tamano sin comprimir, p. ej. "-82% de 1.4 MB". */
+    private static String formatSavings(ApiMetrics.EndpointStats s) {
+        long plain = s.decodedIn() + s.rawOut();
+        if (plain == 0 || plain == s.bytesIn() + s.bytesOut()) return "";
+        return String.format("-%.0f%% de %s", s.compressionSavings() * 100, formatBytes(plain));
+    }
+
+    private static String formatErrors(Map<Integer, Long> errors) {
+        if (errors.isEmpty()) return "";
+        return errors.entrySet().stream()
+                .map(e -> (e.getKey() == ApiMetrics.IO_ERROR ? "io" : String.valueOf(e.getKey())) + ":" + e.getValue())
+                .collect(Collectors.joining(" "));
+    }
+}
@@ -0,0 +1,197 @@
+package main.java.com.bookhub.ui.common;
+
+import javax.swing.SwingUtilities;
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vigilante del Event Dispatch Thread. Sustituye la cola de eventos de AWT por
+ * una que cronometra cada despacho; un hilo daemon captura la pila del EDT
+ * cuando un evento supera el umbral, y al terminar se acumula la duracion en
+ * el sitio de llamada (primer marco de BookHub de esa pila).
+ *
+ * Ademas cuenta las llamadas de red hechas desde el EDT. En modo estricto
+ * (edt.watchdog.strict=true, por ejemplo -Dedt.watchdog.strict=true en las
+ * pruebas) esas llamadas lanzan IllegalStateException.
+ */
+public final class EdtWatchdog {
+
+    private static final boolean STRICT = ApiClient.getBooleanProperty("edt.watchdog.strict", false);
+    private static final long THRESHOLD_NANOS = ApiClient.getIntProperty("edt.watchdog.thresholdMs", 100) * 1_000_000L;
+
+    private static final ConcurrentHashMap<String, Site> STALLS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Site> NETWORK_ON_EDT = new ConcurrentHashMap<>();
+
+    private static volatile boolean installed;
+
+    // Estado del despacho en curso; lo escribe el EDT y lo lee el monitor
+    private static volatile Thread edt;
+    private static volatile long activeSince;
+    private static volatile long sampledFor;
+    private static volatile StackTraceElement[] sampledStack;
+
+    private EdtWatchdog() {}
+
+    /**
+     * Instala la cola cronometrada y el hilo monitor. Idempotente; no hace
+     * nada si edt.watchdog.enabled=false.
+     */
+    public static synchronized void install() {
+        if (installed || !ApiClient.getBooleanProperty("edt.watchdog.enabled", true)) return;
+        installed = true;
+
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new TimedEventQueue());
+
+        Thread monitor = new Thread(EdtWatchdog::monitor, "bookhub-edt-watchdog");
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    /**
+     * Punto de control para las llamadas de red: registra el sitio si se
+     * ejecuta en el EDT y, en modo estricto, lo rechaza.
+     */
+    public static void checkNetworkCall(String call) {
+        if (!SwingUtilities.isEventDispatchThread()) return;
+
+        StackTraceElement[] stack = new Throwable().getStackTrace();
+        String site = callSite(stack);
+        Site stats = NETWORK_ON_EDT.computeIfAbsent(site, s -> new Site(s, stack));
+        stats.count.increment();
+        if (STRICT) {
+            throw new IllegalStateException("Llamada de red en el EDT: " + call + " desde " + site);
+        }
+        if (stats.count.sum() == 1) {
+            System.err.println("Advertencia: llamada de red en el EDT (" + call + ") desde " + site);
+        }
+    }
+
+    /** Bloqueos del EDT por sitio de llamada, del mas lento al mas rapido (p95). */
+    public static List<Site> getStalls() {
+        return sorted(STALLS);
+    }
+
+    /** Llamadas de red hechas desde el EDT por sitio de llamada. */
+    public static List<Site> getNetworkCalls() {
+        return sorted(NETWORK_ON_EDT);
+    }
+
+    public static boolean isInstalled() {
+        return installed;
+    }
+
+    private static List<Site> sorted(ConcurrentHashMap<String, Site> map) {
+        List<Site> sites = new ArrayList<>(map.values());
+        sites.sort(Comparator.comparingDouble((Site s) -> s.durations.percentileMillis(95)).reversed()
+                .thenComparing(s -> -s.count.sum()));
+        return sites;
+    }
+
+    private static void monitor() {
+        long pollMillis = Math.max(10, THRESHOLD_NANOS / 4_000_000L);
+        while (true) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long since = activeSince;
+            Thread thread = edt;
+            if (since != 0 && thread != null && sampledFor != since
+                    && System.nanoTime() - since > THRESHOLD_NANOS) {
+                // Pila tomada en pleno bloqueo, no al final del evento
+                sampledStack = thread.getStackTrace();
+                sampledFor = since;
+            }
+        }
+    }
+
+    private static void recordStall(AWTEvent event, long since, long nanos) {
+        StackTraceElement[] stack = sampledFor == since ? sampledStack : null;
+        String site = stack != null ? callSite(stack) : event.getClass().getSimpleName() + " (sin muestra)";
+
+        Site stats = STALLS.computeIfAbsent(site, s -> {
+            System.err.println("Advertencia: EDT bloqueado " + nanos / 1_000_000 + " ms en " + s);
+            if (stack != null) {
+                for (StackTraceElement frame : stack) {
+                    System.err.println("\tat " + frame);
+                }
+            }
+            return new Site(s, stack);
+        });
+        stats.count.increment();
+        stats.durations.recordNanos(nanos);
+    }
+
+    /** Primer marco de codigo de la aplicacion, saltando JDK, librerias y la propia instrumentacion. */
+    private static String callSite(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String cls = frame.getClassName();
+            if (!isInfrastructure(cls)) {
+                return cls.substring(cls.lastIndexOf('.') + 1) + "." + frame.getMethodName()
+                        + ":" + frame.getLineNumber();
+            }
+        }
+        return stack.length > 0 ? stack[0].toString() : "desconocido";
+    }
+
+    private static boolean isInfrastructure(String cls) {
+        return cls.startsWith("java.") || cls.startsWith("javax.") || cls.startsWith("jdk.")
+                || cls.startsWith("sun.") || cls.startsWith("org.") || cls.startsWith("com.google.")
+                || cls.contains("$$Lambda") || cls.contains("EdtWatchdog") || cls.contains("ApiClient")
+                || cls.contains("ApiMetrics") || cls.contains("JfrEvents");
+    }
+
+    /**
+     * Cola que mide cada despacho. Los despachos anidados (dialogos modales)
+     * siguen bombeando eventos, asi que al volver de uno el evento exterior
+     * reinicia su cronometro en lugar de contar el tiempo del dialogo.
+     */
+    private static final class TimedEventQueue extends EventQueue {
+        private int depth;
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            edt = Thread.currentThread();
+            depth++;
+            activeSince = System.nanoTime();
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                long now = System.nanoTime();
+                long start = activeSince;
+                if (now - start > THRESHOLD_NANOS) {
+                    recordStall(event, start, now - start);
+                }
+                depth--;
+                activeSince = depth > 0 ? now : 0;
+            }
+        }
+    }
+
+    /**
+     * Estadisticas de un sitio de llamada.
+     */
+    public static class Site {
+        public final String callSite;
+        public final LongAdder count = new LongAdder();
+        public final LatencyHistogram durations = new LatencyHistogram();
+        private final StackTraceElement[] stack;
+
+        Site(String callSite, StackTraceElement[] stack) {
+            this.callSite = callSite;
+            this.stack = stack;
+        }
+
+        /** Primera pila capturada para este sitio (vacia si no hubo muestra). */
+        public List<StackTraceElement> getStack() {
+            return stack == null ? List.of() : List.of(stack);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package main.java.com.bookhub.ui.common;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Almacen de entidades indexado por clave, compartido entre pantallas.
+ * Se actualiza de forma incremental en cada carga y escritura para que
+ * seleccion, edicion y validaciones de duplicados sean busquedas O(1).
+ */
+public class EntityStore<K, V> {
+
+    private final ConcurrentHashMap<K, V> byKey = new ConcurrentHashMap<>();
+    private final Function<V, K> keyFn;
+
+    public EntityStore(Function<V, K> keyFn) {
+        this.keyFn = keyFn;
+    }
+
+    /** Sincroniza con un listado completo: inserta/actualiza y elimina las ausentes. */
+    public void replaceAll(Collection<V> items) {
+        Set<K> vigentes = new HashSet<>(items.size() * 2);
+        for (V item : items) {
+            K key = keyFn.apply(item);
+            if (key == null) continue;
+            vigentes.add(key);
+            byKey.put(key, item);
+        }
+        byKey.keySet().retainAll(vigentes);
+    }
+
+    public void put(V item) {
+        if (item == null) return;
+        K key = keyFn.apply(item);
+        if (key != null) {
+            byKey.put(key, item);
+        }
+    }
+
+    public V remove(K key) {
+        return key == null ? null : byKey.remove(key);
+    }
+
+    public V get(K key) {
+        return key == null ? null : byKey.get(key);
+    }
+
+    public boolean contains(K key) {
+        return key != null && byKey.containsKey(key);
+    }
+
+    public K keyOf(V item) {
+        return keyFn.apply(item);
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+}
@@ -0,0 +1,22 @@
+package main.java.com.bookhub.ui.common;
+
+import com.bookhub.dto.LibroResponse;
+import com.bookhub.dto.PrestamoResponse;
+import com.bookhub.entity.Usuario;
+
+/**
+ * Almacenes compartidos por todas las ventanas de la aplicacion.
+ */
+public final class EntityStores {
+
+    /** Libros por ISBN. */
+    public static final EntityStore<String, LibroResponse> LIBROS = new EntityStore<>(LibroResponse::getIsbn);
+
+    /** Usuarios por id. */
+    public static final EntityStore<Integer, Usuario> USUARIOS = new EntityStore<>(Usuario::getId);
+
+    /** Prestamos por id (como texto, igual que se muestra en la tabla). */
+    public static final EntityStore<String, PrestamoResponse> PRESTAMOS = new EntityStore<>(p -> String.valueOf(p.getId()));
+
+    private EntityStores() {}
+}
@@ -0,0 +1,122 @@
+package main.java.com.bookhub.ui.common;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.HttpConnectionFactory;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.ManagedHttpClientConnectionFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transporte HTTP compartido con pool de conexiones keep-alive.
+ * Limita las conexiones por ruta, aplica plazos de conexion y lectura
+ * y expulsa en segundo plano las conexiones ociosas o expiradas.
+ */
+public class HttpTransport implements Closeable {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+
+    public HttpTransport(int maxPerRoute, int maxTotal,
+                         int connectTimeoutMs, int readTimeoutMs,
+                         int leaseTimeoutMs, int idleEvictSeconds) {
+
+        // Cuenta cada socket nuevo para poder calcular la tasa de reutilizacion
+        HttpConnectionFactory<HttpRoute, ManagedHttpClientConnection> connFactory = (route, config) -> {
+            connectionsOpened.increment();
+            return ManagedHttpClientConnectionFactory.INSTANCE.create(route, config);
+        };
+
+        connectionManager = new PoolingHttpClientConnectionManager(connFactory);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(leaseTimeoutMs)
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // La descompresion la hace ApiClient para medir bytes en la red y decodificados
+                .disableContentCompression()
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Ejecuta la peticion sobre el pool. El llamador debe cerrar la respuesta
+     * (o consumir la entidad) para devolver la conexion al pool.
+     */
+    public CloseableHttpResponse execute(HttpUriRequest request) throws IOException {
+        requests.increment();
+        return httpClient.execute(request);
+    }
+
+    public Stats getStats() {
+        PoolStats total = connectionManager.getTotalStats();
+        return new Stats(
+                total.getLeased(),
+                total.getAvailable(),
+                total.getPending(),
+                total.getMax(),
+                requests.sum(),
+                connectionsOpened.sum()
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Fotografia del estado del pool en un instante dado.
+     */
+    public static class Stats {
+        public final int leased;
+        public final int available;
+        public final int pending;
+        public final int max;
+        public final long requests;
+        public final long connectionsOpened;
+
+        public Stats(int leased, int available, int pending, int max, long requests, long connectionsOpened) {
+            this.leased = leased;
+            this.available = available;
+            this.pending = pending;
+            this.max = max;
+            this.requests = requests;
+            this.connectionsOpened = connectionsOpened;
+        }
+
+        /** Fraccion de peticiones que reutilizaron un socket ya abierto. */
+        public double reuseRatio() {
+            if (requests == 0) return 0.0;
+            return Math.max(0.0, 1.0 - (double) connectionsOpened / requests);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("leased=%d available=%d pending=%d max=%d requests=%d opened=%d reuse=%.2f",
+                    leased, available, pending, max, requests, connectionsOpened, reuseRatio());
+        }
+    }
+}
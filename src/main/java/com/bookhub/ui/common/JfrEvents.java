@@ -0,0 +1,159 @@
+package main.java.com.bookhub.ui.common;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos JFR propios para ver en una misma linea de tiempo la red, el parseo
+ * JSON, el llenado de tablas y el filtrado. Estan desactivados por defecto.
+ * Mientras no haya ninguna grabacion en la JVM, begin*() devuelve null sin
+ * crear el evento (crear el primero inicializaria el motor de JFR, unos
+ * cientos de ms); con grabacion pero el evento apagado, shouldCommit() es una
+ * comprobacion que el JIT elimina.
+ *
+ * Para grabarlos:
+ * -XX:StartFlightRecording:filename=bookhub.jfr,+bookhub.HttpRequest#enabled=true,
+ * +bookhub.JsonDecode#enabled=true,+bookhub.TablePopulate#enabled=true,+bookhub.FilterPass#enabled=true
+ */
+public final class JfrEvents {
+
+    private JfrEvents() {}
+
+    public static HttpRequest beginHttpRequest() {
+        if (!FlightRecorder.isInitialized()) return null;
+        HttpRequest event = new HttpRequest();
+        event.begin();
+        return event;
+    }
+
+    public static void end(HttpRequest event, String method, String endpoint, int status, long bytesIn, long bytesOut) {
+        if (event != null && event.shouldCommit()) {
+            event.method = method;
+            event.endpoint = endpoint;
+            event.status = status;
+            event.bytesIn = bytesIn;
+            event.bytesOut = bytesOut;
+            event.commit();
+        }
+    }
+
+    public static JsonDecode beginJsonDecode() {
+        if (!FlightRecorder.isInitialized()) return null;
+        JsonDecode event = new JsonDecode();
+        event.begin();
+        return event;
+    }
+
+    public static void end(JsonDecode event, String endpoint, Class<?> type, int elements) {
+        if (event != null && event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.type = type.getSimpleName();
+            event.elements = elements;
+            event.commit();
+        }
+    }
+
+    public static TablePopulate beginTablePopulate() {
+        if (!FlightRecorder.isInitialized()) return null;
+        TablePopulate event = new TablePopulate();
+        event.begin();
+        return event;
+    }
+
+    public static void end(TablePopulate event, String table, int rows) {
+        if (event != null && event.shouldCommit()) {
+            event.table = table;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    public static FilterPass beginFilterPass() {
+        if (!FlightRecorder.isInitialized()) return null;
+        FilterPass event = new FilterPass();
+        event.begin();
+        return event;
+    }
+
+    public static void end(FilterPass event, String query, String phase) {
+        if (event != null && event.shouldCommit()) {
+            event.query = query;
+            event.phase = phase;
+            event.commit();
+        }
+    }
+
+    @Name("bookhub.HttpRequest")
+    @Label("Peticion HTTP")
+    @Category({"BookHub", "API"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class HttpRequest extends Event {
+        @Label("Metodo")
+        String method;
+
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Estado")
+        @Description("Codigo HTTP, o -1 si no hubo respuesta")
+        int status;
+
+        @Label("Bytes recibidos")
+        @DataAmount
+        long bytesIn;
+
+        @Label("Bytes enviados")
+        @DataAmount
+        long bytesOut;
+    }
+
+    @Name("bookhub.JsonDecode")
+    @Label("Decodificacion JSON")
+    @Category({"BookHub", "API"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class JsonDecode extends Event {
+        @Label("Endpoint")
+        String endpoint;
+
+        @Label("Tipo")
+        String type;
+
+        @Label("Elementos")
+        int elements;
+    }
+
+    @Name("bookhub.TablePopulate")
+    @Label("Llenado de tabla")
+    @Category({"BookHub", "Swing"})
+    @Enabled(false)
+    public static class TablePopulate extends Event {
+        @Label("Tabla")
+        String table;
+
+        @Label("Filas")
+        int rows;
+    }
+
+    @Name("bookhub.FilterPass")
+    @Label("Pasada de filtro")
+    @Category({"BookHub", "Swing"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static class FilterPass extends Event {
+        @Label("Consulta")
+        String query;
+
+        @Label("Fase")
+        @Description("calculo (indice) o aplicacion (RowFilter en el EDT)")
+        String phase;
+    }
+}
@@ -0,0 +1,61 @@
+package main.java.com.bookhub.ui.common;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Gson configurado para los DTO del cliente: las fechas de java.time viajan
+ * como texto ISO-8601, igual que las serializa el backend.
+ */
+public final class JsonSupport {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, isoAdapter(LocalDate::parse).nullSafe())
+            .registerTypeAdapter(LocalDateTime.class, isoAdapter(LocalDateTime::parse).nullSafe())
+            .create();
+
+    private JsonSupport() {}
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Copia de base con los campos no nulos de cambios encima, p. ej. el
+     * Response que resultara de enviar un Request. Sin base parte de cero.
+     */
+    public static <T> T overlay(T base, Object cambios, Class<T> clazz) {
+        JsonObject json = base != null ? GSON.toJsonTree(base).getAsJsonObject() : new JsonObject();
+        GSON.toJsonTree(cambios).getAsJsonObject().entrySet()
+                .forEach(campo -> json.add(campo.getKey(), campo.getValue()));
+        return GSON.fromJson(json, clazz);
+    }
+
+    private static <T> TypeAdapter<T> isoAdapter(Function<String, T> parser) {
+        return new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                out.value(value.toString());
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                return parser.apply(in.nextString());
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package main.java.com.bookhub.ui.common;
+
+import java.util.Set;
+import java.util.function.IntFunction;
+import javax.swing.RowFilter;
+import javax.swing.table.TableModel;
+
+/**
+ * RowFilter que deja pasar las filas cuya clave esta en un conjunto ya calculado
+ * (por ejemplo, el resultado de {@link NgramIndex#search(String)}).
+ */
+public class KeySetRowFilter<K> extends RowFilter<TableModel, Integer> {
+
+    private final Set<K> keys;
+    // Solo se compara con equals: la clave puede venir tal cual del modelo (Object)
+    private final IntFunction<?> keyOfRow;
+
+    public KeySetRowFilter(Set<K> keys, IntFunction<?> keyOfRow) {
+        this.keys = keys;
+        this.keyOfRow = keyOfRow;
+    }
+
+    @Override
+    public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+        return keys.contains(keyOfRow.apply(entry.getIdentifier()));
+    }
+}
@@ -0,0 +1,146 @@
+package main.java.com.bookhub.ui.common;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de respuestas de getList para GET condicionales.
+ * Guarda la lista ya decodificada junto con su ETag/Last-Modified; ante un 304
+ * el cliente reutiliza los objetos sin volver a descargar ni parsear.
+ * Las entradas caducan por TTL y se expulsan por LRU al superar el maximo.
+ */
+public class ListResponseCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    public ListResponseCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ListResponseCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Devuelve la entrada vigente o null si no existe o ya caduco. */
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+
+        if (System.currentTimeMillis() - entry.storedAt > ttlMillis) {
+            entries.remove(key);
+            evictions.increment();
+            return null;
+        }
+        return entry;
+    }
+
+    /** La lista pasa a ser propiedad de la cache; el llamador no debe modificarla. */
+    public synchronized void put(String key, String endpoint, String etag, String lastModified, List<?> items) {
+        if (maxEntries <= 0) return;
+        entries.put(key, new Entry(endpoint, etag, lastModified, items));
+    }
+
+    public synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Invalida todas las entradas del mismo recurso que el endpoint escrito:
+     * un PUT a /libros/123 invalida /libros y /libros/123.
+     */
+    public synchronized void invalidate(String endpoint) {
+        String root = resourceRoot(endpoint);
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (resourceRoot(it.next().endpoint).equals(root)) {
+                it.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), entries.size());
+    }
+
+    static String resourceRoot(String endpoint) {
+        String path = endpoint;
+        int query = path.indexOf('?');
+        if (query >= 0) path = path.substring(0, query);
+
+        int next = path.indexOf('/', 1);
+        return next > 0 ? path.substring(0, next) : path;
+    }
+
+    /**
+     * Respuesta decodificada con sus validadores HTTP.
+     */
+    public static class Entry {
+        public final String endpoint;
+        public final String etag;
+        public final String lastModified;
+        public final List<?> items;
+        public final long storedAt;
+
+        Entry(String endpoint, String etag, String lastModified, List<?> items) {
+            this.endpoint = endpoint;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.items = items;
+            this.storedAt = System.currentTimeMillis();
+        }
+    }
+
+    public static class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long invalidations;
+        public final int size;
+
+        public Stats(long hits, long misses, long evictions, long invalidations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+        }
+
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d evictions=%d invalidations=%d size=%d ratio=%.2f",
+                    hits, misses, evictions, invalidations, size, hitRatio());
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package main.java.com.bookhub.ui.common;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+
+import javax.swing.SwingUtilities;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Canal de actualizaciones en vivo por Server-Sent Events (GET {base}/eventos).
+ *
+ * Cada evento se llama como la coleccion afectada (libros, usuarios,
+ * prestamos) y sus datos son un delta {marca, cambios, eliminados}, el mismo
+ * formato de {coleccion}/cambios, que las pantallas aplican fila a fila.
+ * Tras un corte se reconecta con espera exponencial enviando Last-Event-ID
+ * para que el servidor reenvie lo perdido. Si no puede (o es una conexion
+ * nueva sin id) se avisa a los suscriptores para que hagan su refresco normal,
+ * que con una marca vigente es solo un delta.
+ * El canal se abre con la primera suscripcion y se cierra al cancelarse la
+ * ultima; tools/ incluye un servidor de eventos de prueba (SseStandIn).
+ */
+public final class LiveUpdates {
+
+    /** Evento del servidor que pide resincronizar todas las colecciones. */
+    public static final String REINICIO = "reinicio";
+
+    private static final LiveUpdates DEFAULT = new LiveUpdates(
+            ApiClient.getBaseUrl() + ApiClient.getProperty("sync.eventos.endpoint", "/eventos"),
+            ApiClient.getBooleanProperty("sync.eventos.enabled", true),
+            ApiClient.getIntProperty("sync.eventos.timeoutMs", 60000),
+            ApiClient.getIntProperty("sync.eventos.reintentoMaxMs", 30000));
+
+    private final String url;
+    private final boolean enabled;
+    private final int timeoutMs;
+    private final int maxBackoffMs;
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final LongAdder eventos = new LongAdder();
+    private final LongAdder reconexiones = new LongAdder();
+    private volatile String estado = "inactivo";
+    private volatile String lastEventId;
+    private volatile int retryMs = 1000;
+    private Thread reader;
+    // Peticion en curso, para cortarla al quedarse sin suscriptores
+    private volatile HttpGet actual;
+    // Solo lo toca el hilo lector
+    private int conexiones;
+
+    LiveUpdates(String url, boolean enabled, int timeoutMs, int maxBackoffMs) {
+        this.url = url;
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public static LiveUpdates getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Suscribe una pantalla a los eventos de una coleccion. La primera
+     * suscripcion abre el canal. Ambos callbacks se invocan en el EDT.
+     *
+     * @param onDelta    cambios empujados por el servidor
+     * @param onReinicio hay que refrescar porque pudieron perderse eventos
+     * @return accion que cancela la suscripcion; cancelar la ultima cierra el canal
+     */
+    public <T> Runnable subscribe(String coleccion, Class<T> clazz,
+                                  Consumer<DeltaSync.Delta<T>> onDelta, Runnable onReinicio) {
+        Subscription<T> subscription = new Subscription<>(coleccion,
+                JsonSupport.gson().getAdapter(clazz), onDelta, onReinicio);
+        subscriptions.add(subscription);
+        start();
+        return () -> {
+            subscriptions.remove(subscription);
+            stopIfIdle();
+        };
+    }
+
+    public Stats getStats() {
+        return new Stats(estado, eventos.sum(), reconexiones.sum(), lastEventId);
+    }
+
+    private synchronized void start() {
+        if (!enabled || reader != null || subscriptions.isEmpty()) return;
+        reader = new Thread(this::run, "bookhub-eventos");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /** Sin suscriptores no tiene sentido mantener la conexion abierta. */
+    private synchronized void stopIfIdle() {
+        if (!subscriptions.isEmpty() || reader == null) return;
+        reader.interrupt();
+        HttpGet request = actual;
+        if (request != null) {
+            // La lectura del socket no atiende interrupciones
+            request.abort();
+        }
+    }
+
+    private void run() {
+        boolean detenido = false;
+        try {
+            detenido = conectar();
+        } finally {
+            synchronized (this) {
+                reader = null;
+                estado = detenido ? "detenido" : "inactivo";
+                // Una suscripcion pudo llegar mientras el hilo terminaba; tras un 204 se respeta el alto
+                if (!detenido) {
+                    start();
+                }
+            }
+        }
+    }
+
+    /** @return true si el servidor pidio no reconectar */
+    private boolean conectar() {
+        // Cliente propio: la conexion queda abierta indefinidamente y no debe
+        // ocupar un hueco del pool ni heredar su plazo de lectura
+        RequestConfig config = RequestConfig.custom()
+                .setConnectTimeout(ApiClient.getIntProperty("api.http.connectTimeoutMs", 3000))
+                .setSocketTimeout(timeoutMs)
+                .build();
+        int intentos = 0;
+        try (CloseableHttpClient client = HttpClients.custom().setDefaultRequestConfig(config).build()) {
+            while (!subscriptions.isEmpty() && !Thread.currentThread().isInterrupted()) {
+                estado = intentos == 0 ? "conectando" : "reconectando";
+                int previas = conexiones;
+                try {
+                    if (escuchar(client)) {
+                        return true;
+                    }
+                } catch (IOException e) {
+                    // Un corte tras conectar bien no cuenta como fallo para la espera
+                    intentos = conexiones > previas ? 0 : intentos + 1;
+                }
+                if (subscriptions.isEmpty()) break;
+                reconexiones.increment();
+                Thread.sleep(espera(intentos));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // cierre del cliente
+        }
+        return false;
+    }
+
+    /** Espera exponencial con jitter completo, a partir del retry indicado por el servidor. */
+    private long espera(int intentos) {
+        long techo = Math.min(maxBackoffMs, (long) retryMs << Math.min(intentos, 10));
+        return ThreadLocalRandom.current().nextLong(retryMs / 2, Math.max(retryMs / 2 + 1, techo + 1));
+    }
+
+    /**
+     * Mantiene una conexion hasta que se corta.
+     *
+     * @return true si el servidor no ofrece eventos y no debe reintentarse
+     */
+    private boolean escuchar(CloseableHttpClient client) throws IOException {
+        HttpGet request = new HttpGet(url);
+        request.setHeader("Accept", "text/event-stream");
+        request.setHeader("Cache-Control", "no-cache");
+        String resumeFrom = lastEventId;
+        if (resumeFrom != null) {
+            request.setHeader("Last-Event-ID", resumeFrom);
+        }
+
+        actual = request;
+        if (subscriptions.isEmpty()) {
+            throw new InterruptedIOException("Sin suscriptores");
+        }
+        try (CloseableHttpResponse response = client.execute(request)) {
+            int code = response.getStatusLine().getStatusCode();
+            // 204 es la forma estandar de pedir que no se reconecte
+            if (code == 204 || code == 404 || code == 405 || code == 501) {
+                return true;
+            }
+            HttpEntity entity = response.getEntity();
+            if (code != 200 || entity == null) {
+                throw new IOException("Error (" + code + ") abriendo el canal de eventos");
+            }
+
+            estado = "conectado";
+            conexiones++;
+            if (resumeFrom == null) {
+                // Sin id no hay reenvio: lo ocurrido antes de conectar llega con un refresco
+                dispatch(REINICIO, null);
+            }
+            leer(new BufferedReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8)));
+        } finally {
+            actual = null;
+        }
+        throw new IOException("Canal de eventos cerrado por el servidor");
+    }
+
+    private void leer(BufferedReader in) throws IOException {
+        String evento = null;
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    eventos.increment();
+                    dispatch(evento != null ? evento : "message", data.toString());
+                }
+                evento = null;
+                data.setLength(0);
+                continue;
+            }
+            if (line.startsWith(":")) continue; // comentario / latido
+
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+            if (value.startsWith(" ")) value = value.substring(1);
+
+            switch (field) {
+                case "event" -> evento = value;
+                case "data" -> {
+                    if (data.length() > 0) data.append('\n');
+                    data.append(value);
+                }
+                case "id" -> {
+                    if (value.indexOf('\0') < 0) lastEventId = value;
+                }
+                case "retry" -> {
+                    try {
+                        retryMs = Math.max(100, Integer.parseInt(value.trim()));
+                    } catch (NumberFormatException ignored) {
+                        // valor invalido: se ignora como indica la especificacion
+                    }
+                }
+                default -> { }
+            }
+        }
+    }
+
+    private void dispatch(String evento, String data) {
+        for (Subscription<?> subscription : subscriptions) {
+            if (REINICIO.equals(evento)) {
+                SwingUtilities.invokeLater(subscription.onReinicio);
+            } else if (subscription.coleccion.equals(evento)) {
+                subscription.deliver(data);
+            }
+        }
+    }
+
+    private static final class Subscription<T> {
+        final String coleccion;
+        final TypeAdapter<T> adapter;
+        final Consumer<DeltaSync.Delta<T>> onDelta;
+        final Runnable onReinicio;
+
+        Subscription(String coleccion, TypeAdapter<T> adapter,
+                     Consumer<DeltaSync.Delta<T>> onDelta, Runnable onReinicio) {
+            this.coleccion = coleccion;
+            this.adapter = adapter;
+            this.onDelta = onDelta;
+            this.onReinicio = onReinicio;
+        }
+
+        void deliver(String data) {
+            DeltaSync.Delta<T> delta;
+            try {
+                delta = DeltaSync.Delta.read(new JsonReader(new StringReader(data)), adapter);
+            } catch (IOException | JsonParseException | IllegalStateException e) {
+                // Evento ilegible: mejor resincronizar que aplicar algo a medias
+                System.err.println("Evento '" + coleccion + "' invalido: " + e.getMessage());
+                SwingUtilities.invokeLater(onReinicio);
+                return;
+            }
+            SwingUtilities.invokeLater(() -> onDelta.accept(delta));
+        }
+    }
+
+    /**
+     * Estado del canal para el panel de diagnostico.
+     */
+    public static class Stats {
+        public final String estado;
+        public final long eventos;
+        public final long reconexiones;
+        public final String ultimoId;
+
+        public Stats(String estado, long eventos, long reconexiones, String ultimoId) {
+            this.estado = estado;
+            this.eventos = eventos;
+            this.reconexiones = reconexiones;
+            this.ultimoId = ultimoId;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("estado=%s eventos=%d reconexiones=%d ultimoId=%s",
+                    estado, eventos, reconexiones, ultimoId);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package main.java.com.bookhub.ui.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Indice invertido de trigramas para filtrar tablas por texto sin recorrer
+ * todas las filas con una expresion regular en cada tecla.
+ * Los candidatos salen de intersectar las listas de postings de los trigramas
+ * de la consulta y se confirman con un contains sobre el texto normalizado.
+ */
+public class NgramIndex<K> {
+
+    private static final int N = 3;
+    // Separa campos para que un trigrama no cruce de un campo al siguiente
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final Map<String, Set<K>> postings = new HashMap<>();
+    private final Map<K, String> texts = new HashMap<>();
+
+    /** Une varios campos en el texto indexable de una entidad. */
+    public static String join(String... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : fields) {
+            if (sb.length() > 0) sb.append(FIELD_SEPARATOR);
+            if (field != null) sb.append(field);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sincroniza el indice con la coleccion: solo reindexa las entidades cuyo
+     * texto cambio y elimina las que ya no estan.
+     */
+    public synchronized <V> void sync(Collection<V> items, Function<V, K> keyFn, Function<V, String> textFn) {
+        Set<K> vigentes = new HashSet<>(items.size() * 2);
+        for (V item : items) {
+            K key = keyFn.apply(item);
+            vigentes.add(key);
+            put(key, textFn.apply(item));
+        }
+
+        Iterator<K> it = texts.keySet().iterator();
+        while (it.hasNext()) {
+            K key = it.next();
+            if (!vigentes.contains(key)) {
+                removeGrams(key, texts.get(key));
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void put(K key, String text) {
+        String normalized = normalize(text);
+        String previous = texts.put(key, normalized);
+        if (normalized.equals(previous)) return;
+
+        if (previous != null) {
+            removeGrams(key, previous);
+        }
+        for (String gram : grams(normalized)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+        }
+    }
+
+    public synchronized void remove(K key) {
+        String previous = texts.remove(key);
+        if (previous != null) {
+            removeGrams(key, previous);
+        }
+    }
+
+    public synchronized int size() {
+        return texts.size();
+    }
+
+    /**
+     * Claves cuyo texto contiene la consulta (sin distinguir mayusculas),
+     * o null si la consulta esta vacia y no debe filtrarse nada.
+     */
+    public synchronized Set<K> search(String query) {
+        if (query == null || query.isBlank()) return null;
+        String q = normalize(query.trim());
+
+        Set<K> result = new HashSet<>();
+        if (q.length() < N) {
+            // Consultas cortas: no hay trigramas, se revisa el texto ya normalizado
+            texts.forEach((key, text) -> {
+                if (text.contains(q)) result.add(key);
+            });
+            return result;
+        }
+
+        List<Set<K>> lists = new ArrayList<>();
+        for (String gram : grams(q)) {
+            Set<K> posting = postings.get(gram);
+            if (posting == null) return result;
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        // Se parte de la lista mas corta y se confirma cada candidato
+        for (K candidate : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(candidate);
+            }
+            if (inAll && texts.get(candidate).contains(q)) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    private void removeGrams(K key, String text) {
+        for (String gram : grams(text)) {
+            Set<K> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(key);
+                if (posting.isEmpty()) postings.remove(gram);
+            }
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= text.length(); i++) {
+            String gram = text.substring(i, i + N);
+            if (gram.indexOf(FIELD_SEPARATOR) < 0) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,94 @@
+package main.java.com.bookhub.ui.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Escritura que se muestra antes de que responda el servidor.
+ *
+ * Cada paso devuelve un delta local (sin marca) que la pantalla aplica por el
+ * mismo camino que los cambios de {coleccion}/cambios y los eventos en vivo:
+ * aplicar() muestra el valor propuesto, confirmar() lo sustituye por la
+ * version del servidor y revertir() restaura el anterior. Los dos ultimos no
+ * hacen nada si mientras tanto otro cambio (un evento, un refresco) piso la
+ * fila, porque ese dato es mas reciente que el de la escritura.
+ *
+ * El almacen debe reflejar lo que muestra la pantalla; solo se usa desde el EDT.
+ */
+public final class OptimisticEdit<K, V> {
+
+    private final EntityStore<K, V> store;
+    private final K key;
+    private final V anterior;
+    // null si es una baja
+    private final V propuesto;
+
+    private OptimisticEdit(EntityStore<K, V> store, K key, V anterior, V propuesto) {
+        this.store = store;
+        this.key = key;
+        this.anterior = anterior;
+        this.propuesto = propuesto;
+    }
+
+    /**
+     * Alta o modificacion. Si la clave la asigna el servidor (null) no hay
+     * nada que mostrar por adelantado: la fila aparece al confirmar.
+     */
+    public static <K, V> OptimisticEdit<K, V> guardar(EntityStore<K, V> store, V propuesto) {
+        K key = store.keyOf(propuesto);
+        return new OptimisticEdit<>(store, key, store.get(key), propuesto);
+    }
+
+    public static <K, V> OptimisticEdit<K, V> eliminar(EntityStore<K, V> store, K key) {
+        return new OptimisticEdit<>(store, key, store.get(key), null);
+    }
+
+    public DeltaSync.Delta<V> aplicar() {
+        if (key == null) return vacio();
+        return propuesto != null ? cambio(propuesto) : baja();
+    }
+
+    /**
+     * @param servidor entidad devuelta por el servidor; null conserva el valor
+     *                 propuesto (p. ej. un DELETE o un PUT sin cuerpo)
+     */
+    public DeltaSync.Delta<V> confirmar(V servidor) {
+        if (servidor == null || propuesto == null) return vacio();
+        if (key != null && !vigente()) return vacio();
+        return cambio(servidor);
+    }
+
+    public DeltaSync.Delta<V> revertir() {
+        if (key == null || !vigente()) return vacio();
+        return anterior != null ? cambio(anterior) : baja();
+    }
+
+    /** Une los pasos de varias escrituras para repintar una sola vez. */
+    public static <V> DeltaSync.Delta<V> unir(Collection<DeltaSync.Delta<V>> deltas) {
+        List<V> cambios = new ArrayList<>();
+        List<String> eliminados = new ArrayList<>();
+        for (DeltaSync.Delta<V> delta : deltas) {
+            cambios.addAll(delta.cambios);
+            eliminados.addAll(delta.eliminados);
+        }
+        return new DeltaSync.Delta<>(null, cambios, eliminados);
+    }
+
+    /** La pantalla sigue mostrando lo que puso esta escritura. */
+    private boolean vigente() {
+        return propuesto != null ? store.get(key) == propuesto : !store.contains(key);
+    }
+
+    private DeltaSync.Delta<V> cambio(V valor) {
+        return new DeltaSync.Delta<>(null, List.of(valor), List.of());
+    }
+
+    private DeltaSync.Delta<V> baja() {
+        return new DeltaSync.Delta<>(null, List.of(), List.of(String.valueOf(key)));
+    }
+
+    private static <V> DeltaSync.Delta<V> vacio() {
+        return new DeltaSync.Delta<>(null, List.of(), List.of());
+    }
+}
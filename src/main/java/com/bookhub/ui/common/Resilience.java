@@ -0,0 +1,369 @@
+package main.java.com.bookhub.ui.common;
+
+import com.google.gson.JsonParseException;
+
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Capa de resiliencia de un cliente HTTP:
+ * - limitador de ritmo (token bucket) comun a todas sus peticiones;
+ * - un circuito por endpoint que, tras varios fallos seguidos del backend,
+ *   rechaza las llamadas al instante durante un tiempo y luego deja pasar
+ *   una de prueba;
+ * - reintentos con espera exponencial y jitter solo para GET/PUT/DELETE,
+ *   ante fallos de red o 502/503/504/429.
+ * Los rechazos propios llegan al llamador como IOException con mensaje
+ * legible, igual que cualquier error de conexion.
+ */
+public class Resilience {
+
+    private static final List<Resilience> INSTANCES = new CopyOnWriteArrayList<>();
+
+    private final String nombre;
+    private final int maxIntentos;
+    private final long baseMs;
+    private final long maxEsperaMs;
+    private final int umbralFallos;
+    private final long abiertoNanos;
+    private final TokenBucket limiter;
+
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final LongAdder reintentos = new LongAdder();
+    private final LongAdder limitadas = new LongAdder();
+
+    public Resilience(String nombre, int maxIntentos, long baseMs, long maxEsperaMs,
+                      int umbralFallos, long abiertoMs, double porSegundo, int rafaga, long esperaLimiteMs) {
+        this.nombre = nombre;
+        this.maxIntentos = Math.max(1, maxIntentos);
+        this.baseMs = baseMs;
+        this.maxEsperaMs = maxEsperaMs;
+        this.umbralFallos = umbralFallos;
+        this.abiertoNanos = TimeUnit.MILLISECONDS.toNanos(abiertoMs);
+        this.limiter = porSegundo > 0 ? new TokenBucket(porSegundo, rafaga, esperaLimiteMs) : null;
+        INSTANCES.add(this);
+    }
+
+    /** Crea la capa con la configuracion de application.properties. */
+    public static Resilience fromProperties(String nombre) {
+        return new Resilience(nombre,
+                ApiClient.getIntProperty("api.reintentos.max", 3),
+                ApiClient.getIntProperty("api.reintentos.baseMs", 200),
+                ApiClient.getIntProperty("api.reintentos.maxMs", 3000),
+                ApiClient.getIntProperty("api.circuito.fallos", 5),
+                ApiClient.getIntProperty("api.circuito.abiertoMs", 10000),
+                ApiClient.getIntProperty("api.limite.porSegundo", 20),
+                ApiClient.getIntProperty("api.limite.rafaga", 40),
+                ApiClient.getIntProperty("api.limite.esperaMaxMs", 1000));
+    }
+
+    public static List<Resilience> all() {
+        return INSTANCES;
+    }
+
+    public <T> T execute(String method, String endpoint, IoCall<T> call, ToIntFunction<T> statusOf) throws IOException {
+        return execute(method, endpoint, call, statusOf, () -> true);
+    }
+
+    /**
+     * Ejecuta la llamada aplicando limitador, circuito y reintentos.
+     *
+     * @param statusOf     codigo HTTP del resultado (para llamadas que no lanzan ante 5xx)
+     * @param retryAllowed false si la llamada ya tuvo efectos visibles (p. ej. entrego
+     *                     bloques al consumidor) y repetirla los duplicaria
+     */
+    public <T> T execute(String method, String endpoint, IoCall<T> call, ToIntFunction<T> statusOf,
+                         BooleanSupplier retryAllowed) throws IOException {
+        String key = ApiMetrics.template(method, endpoint);
+        CircuitBreaker breaker = breakers.computeIfAbsent(key, CircuitBreaker::new);
+        // En el EDT no se duerme: ni reintentos ni espera del limitador
+        boolean edt = SwingUtilities.isEventDispatchThread();
+        int intentos = idempotent(method) && !edt ? maxIntentos : 1;
+
+        IOException ultimoFallo = null;
+        T ultimoResultado = null;
+        for (int intento = 1; ; intento++) {
+            try {
+                breaker.acquire();
+            } catch (CircuitOpenException e) {
+                // Si el circuito se abrio entre reintentos, se informa el fallo real
+                if (ultimoFallo != null) throw ultimoFallo;
+                if (intento > 1) return ultimoResultado;
+                throw e;
+            }
+            if (limiter != null && !limiter.acquire(edt ? 0 : limiter.maxWaitNanos)) {
+                breaker.release();
+                limitadas.increment();
+                throw new RateLimitedException("Demasiadas peticiones seguidas a " + key + ". Intente de nuevo en un momento.");
+            }
+
+            IOException failure = null;
+            int status;
+            T result = null;
+            try {
+                result = call.run();
+                status = statusOf.applyAsInt(result);
+            } catch (HttpStatusException e) {
+                failure = e;
+                status = e.status;
+            } catch (IOException e) {
+                failure = e;
+                status = ApiMetrics.IO_ERROR;
+            } catch (JsonParseException e) {
+                // Cuerpo ilegible (p. ej. HTML de un proxy con 200): fallo del backend
+                breaker.record(false);
+                throw e;
+            } catch (RuntimeException | Error e) {
+                // Fallo del propio cliente (un consumidor de bloques, el disco lleno al
+                // exportar): no dice nada del backend, pero el turno de prueba se devuelve
+                // o el circuito quedaria abierto
+                breaker.release();
+                throw e;
+            }
+
+            boolean backendFailure = status == ApiMetrics.IO_ERROR || status >= 500 || status == 429;
+            breaker.record(!backendFailure);
+
+            boolean transitorio = status == ApiMetrics.IO_ERROR || status == 502 || status == 503
+                    || status == 504 || status == 429;
+            if (!transitorio || intento >= intentos || !retryAllowed.getAsBoolean()) {
+                if (failure != null) throw failure;
+                return result;
+            }
+
+            ultimoFallo = failure;
+            ultimoResultado = result;
+            reintentos.increment();
+            sleep(backoff(intento));
+        }
+    }
+
+    private static boolean idempotent(String method) {
+        return "GET".equals(method) || "PUT".equals(method) || "DELETE".equals(method);
+    }
+
+    /** Jitter completo sobre una espera exponencial acotada. */
+    private long backoff(int intento) {
+        long techo = Math.min(maxEsperaMs, baseMs << Math.min(intento - 1, 16));
+        return ThreadLocalRandom.current().nextLong(techo + 1);
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido antes de reintentar", e);
+        }
+    }
+
+    public Stats getStats() {
+        List<CircuitStats> circuitos = new ArrayList<>();
+        for (CircuitBreaker b : breakers.values()) {
+            circuitos.add(b.snapshot());
+        }
+        circuitos.sort(Comparator.comparing(c -> c.endpoint));
+        return new Stats(nombre, reintentos.sum(), limitadas.sum(), circuitos);
+    }
+
+    /** Estado del circuito de un endpoint ("GET /libros") o null si aun no se uso. */
+    public String stateOf(String key) {
+        CircuitBreaker b = breakers.get(key);
+        return b == null ? null : b.snapshot().estado;
+    }
+
+    @FunctionalInterface
+    public interface IoCall<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Respuesta HTTP de error; el codigo permite distinguir fallos del
+     * backend (5xx) de errores del cliente (4xx).
+     */
+    public static class HttpStatusException extends IOException {
+        public final int status;
+
+        public HttpStatusException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /** El circuito del endpoint esta abierto: se falla sin llamar al backend. */
+    public static class CircuitOpenException extends IOException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    /** El limitador de ritmo no concedio turno dentro de la espera maxima. */
+    public static class RateLimitedException extends IOException {
+        public RateLimitedException(String message) {
+            super(message);
+        }
+    }
+
+    private enum Estado { CERRADO, ABIERTO, SEMIABIERTO }
+
+    /**
+     * Circuito de un endpoint. En SEMIABIERTO solo circula una llamada de
+     * prueba; su resultado lo cierra o lo vuelve a abrir.
+     */
+    private final class CircuitBreaker {
+        final String key;
+        private Estado estado = Estado.CERRADO;
+        private int fallosSeguidos;
+        private long abiertoHasta;
+        private boolean pruebaEnCurso;
+        private final LongAdder rechazos = new LongAdder();
+        private final LongAdder aperturas = new LongAdder();
+
+        CircuitBreaker(String key) {
+            this.key = key;
+        }
+
+        synchronized void acquire() throws CircuitOpenException {
+            if (estado == Estado.ABIERTO && System.nanoTime() - abiertoHasta >= 0) {
+                estado = Estado.SEMIABIERTO;
+            }
+            if (estado == Estado.ABIERTO || (estado == Estado.SEMIABIERTO && pruebaEnCurso)) {
+                rechazos.increment();
+                long restante = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(abiertoHasta - System.nanoTime()));
+                throw new CircuitOpenException("El servidor no responde (" + key + "). Intente de nuevo en "
+                        + restante + " s.");
+            }
+            if (estado == Estado.SEMIABIERTO) {
+                pruebaEnCurso = true;
+            }
+        }
+
+        /** Devuelve el turno de prueba si la llamada no llego a hacerse. */
+        synchronized void release() {
+            pruebaEnCurso = false;
+        }
+
+        synchronized void record(boolean ok) {
+            pruebaEnCurso = false;
+            if (ok) {
+                estado = Estado.CERRADO;
+                fallosSeguidos = 0;
+                return;
+            }
+            fallosSeguidos++;
+            if (estado == Estado.SEMIABIERTO || fallosSeguidos >= umbralFallos) {
+                if (estado != Estado.ABIERTO) aperturas.increment();
+                estado = Estado.ABIERTO;
+                abiertoHasta = System.nanoTime() + abiertoNanos;
+            }
+        }
+
+        synchronized CircuitStats snapshot() {
+            Estado actual = estado == Estado.ABIERTO && System.nanoTime() - abiertoHasta >= 0
+                    ? Estado.SEMIABIERTO : estado;
+            return new CircuitStats(key, actual.name(), fallosSeguidos, rechazos.sum(), aperturas.sum());
+        }
+    }
+
+    /**
+     * Token bucket: rafaga tokens como maximo, repuestos a porSegundo. Si no
+     * hay token se espera lo justo hasta el siguiente, salvo que supere la
+     * espera maxima.
+     */
+    private static final class TokenBucket {
+        private final double porNano;
+        private final double capacidad;
+        final long maxWaitNanos;
+        private double tokens;
+        private long ultimo = System.nanoTime();
+
+        TokenBucket(double porSegundo, int rafaga, long esperaMaxMs) {
+            this.porNano = porSegundo / 1e9;
+            this.capacidad = Math.max(1, rafaga);
+            this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaxMs);
+            this.tokens = capacidad;
+        }
+
+        boolean acquire(long maxWait) throws IOException {
+            long espera;
+            synchronized (this) {
+                long ahora = System.nanoTime();
+                tokens = Math.min(capacidad, tokens + (ahora - ultimo) * porNano);
+                ultimo = ahora;
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return true;
+                }
+                espera = (long) Math.ceil((1 - tokens) / porNano);
+                if (espera > maxWait) return false;
+                // Reserva el token futuro: quien llegue despues espera a continuacion
+                tokens -= 1;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrumpido esperando turno del limitador", e);
+            }
+            return true;
+        }
+    }
+
+    public static class CircuitStats {
+        public final String endpoint;
+        public final String estado;
+        public final int fallosSeguidos;
+        public final long rechazos;
+        public final long aperturas;
+
+        CircuitStats(String endpoint, String estado, int fallosSeguidos, long rechazos, long aperturas) {
+            this.endpoint = endpoint;
+            this.estado = estado;
+            this.fallosSeguidos = fallosSeguidos;
+            this.rechazos = rechazos;
+            this.aperturas = aperturas;
+        }
+    }
+
+    public static class Stats {
+        public final String cliente;
+        public final long reintentos;
+        public final long limitadas;
+        public final List<CircuitStats> circuitos;
+
+        Stats(String cliente, long reintentos, long limitadas, List<CircuitStats> circuitos) {
+            this.cliente = cliente;
+            this.reintentos = reintentos;
+            this.limitadas = limitadas;
+            this.circuitos = circuitos;
+        }
+
+        public long rechazosCircuito() {
+            return circuitos.stream().mapToLong(c -> c.rechazos).sum();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(cliente)
+                    .append(": reintentos=").append(reintentos)
+                    .append(" limitadas=").append(limitadas)
+                    .append(" rechazosCircuito=").append(rechazosCircuito());
+            for (CircuitStats c : circuitos) {
+                if (!"CERRADO".equals(c.estado)) {
+                    sb.append(' ').append(c.endpoint).append('=').append(c.estado);
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package main.java.com.bookhub.ui.common;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+
+/**
+ * Canal de busqueda para campos de texto que filtran una tabla.
+ * Agrupa las pulsaciones con un Timer de Swing (debounce), calcula el resultado
+ * en un hilo de fondo y lo aplica en el EDT de una sola vez. Una consulta
+ * nueva deja sin efecto a las anteriores que sigan pendientes o en curso.
+ */
+public class SearchPipeline<R> {
+
+    private static final ExecutorService WORKER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread t = new Thread(runnable, "bookhub-search");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final JTextComponent field;
+    private final Function<String, R> search;
+    private final Consumer<R> apply;
+    private final Timer debounce;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private long lastEventNanos;
+
+    /**
+     * @param search calculo del resultado; se ejecuta fuera del EDT y debe ser thread-safe
+     * @param apply  aplica el resultado en el EDT (por ejemplo, sorter.setRowFilter)
+     */
+    public SearchPipeline(JTextComponent field, int delayMs, Function<String, R> search, Consumer<R> apply) {
+        this.field = field;
+        this.search = search;
+        this.apply = apply;
+
+        debounce = new Timer(delayMs, e -> dispatch());
+        debounce.setRepeats(false);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { schedule(); }
+            @Override public void removeUpdate(DocumentEvent e) { schedule(); }
+            @Override public void changedUpdate(DocumentEvent e) { schedule(); }
+        });
+    }
+
+    /**
+     * Recalcula y aplica la consulta actual en el hilo llamador (EDT), por ejemplo
+     * tras recargar los datos. Invalida cualquier calculo en curso.
+     */
+    public void applyNow() {
+        debounce.stop();
+        generation.incrementAndGet();
+        String query = field.getText();
+        applyResult(query, compute(query));
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    private void schedule() {
+        lastEventNanos = System.nanoTime();
+        generation.incrementAndGet();
+        debounce.restart();
+    }
+
+    private void dispatch() {
+        String query = field.getText();
+        long gen = generation.incrementAndGet();
+        long startNanos = lastEventNanos;
+
+        WORKER.execute(() -> {
+            if (gen != generation.get()) return;
+            R result = compute(query);
+            if (gen != generation.get()) return;
+
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation.get()) return;
+                applyResult(query, result);
+                // Latencia percibida: desde la ultima tecla hasta el filtro aplicado
+                latency.recordNanos(System.nanoTime() - startNanos);
+            });
+        });
+    }
+
+    private R compute(String query) {
+        JfrEvents.FilterPass event = JfrEvents.beginFilterPass();
+        R result = search.apply(query);
+        JfrEvents.end(event, query, "calculo");
+        return result;
+    }
+
+    private void applyResult(String query, R result) {
+        JfrEvents.FilterPass event = JfrEvents.beginFilterPass();
+        apply.accept(result);
+        JfrEvents.end(event, query, "aplicacion");
+    }
+}
@@ -0,0 +1,290 @@
+package main.java.com.bookhub.ui.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Agrupa GET de listas identicos que coinciden en el tiempo: el primero
+ * (lider) hace la peticion y los que llegan mientras sigue en curso se
+ * enganchan a ella. Cada seguidor recibe primero los bloques ya decodificados
+ * y despues los que vayan llegando, asi que todos comparten una sola descarga
+ * y un solo parseo. Los bloques respetan el tamano pedido por el lider.
+ *
+ * En la variante asincrona ningun seguidor ocupa un hilo mientras espera: se
+ * registra en la peticion y sus bloques se le entregan con tareas cortas en el
+ * executor a medida que el lider los publica.
+ */
+public class SingleFlight {
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, Call<?>> calls = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    public SingleFlight(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Ejecuta la carga o se une a una identica en curso.
+     *
+     * @param key    identifica la peticion (tipo y endpoint)
+     * @param loader hace la peticion real entregando los bloques al consumidor dado
+     * @return numero total de elementos
+     */
+    @SuppressWarnings("unchecked")
+    public <T> int stream(String key, String endpoint, Consumer<List<T>> onChunk, Loader<T> loader) throws IOException {
+        if (!enabled) {
+            return loader.load(onChunk);
+        }
+
+        Call<T> mine = new Call<>(endpoint);
+        Call<T> existing = (Call<T>) calls.putIfAbsent(key, mine);
+        if (existing != null) {
+            followers.increment();
+            return existing.follow(onChunk);
+        }
+
+        leaders.increment();
+        return lead(key, mine, onChunk, loader);
+    }
+
+    /**
+     * Variante asincrona de stream: el lider corre en el executor y los
+     * seguidores no bloquean ningun hilo. Los bloques de cada consumidor llegan
+     * en orden y de uno en uno, en hilos del executor.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<Integer> streamAsync(String key, String endpoint, Consumer<List<T>> onChunk,
+                                                      Loader<T> loader, Executor executor) {
+        if (!enabled) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return loader.load(onChunk);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+
+        Call<T> mine = new Call<>(endpoint);
+        Call<T> existing = (Call<T>) calls.putIfAbsent(key, mine);
+        if (existing != null) {
+            followers.increment();
+            return existing.subscribe(onChunk, executor);
+        }
+
+        leaders.increment();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return lead(key, mine, onChunk, loader);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private <T> int lead(String key, Call<T> mine, Consumer<List<T>> onChunk, Loader<T> loader) throws IOException {
+        try {
+            int total = loader.load(chunk -> {
+                mine.publish(chunk);
+                onChunk.accept(chunk);
+            });
+            mine.complete(total, null);
+            return total;
+        } catch (IOException | RuntimeException e) {
+            mine.complete(0, e);
+            throw e;
+        } finally {
+            calls.remove(key, mine);
+        }
+    }
+
+    /**
+     * Una escritura sobre el recurso hace que las siguientes lecturas no se
+     * unan a peticiones lanzadas antes de ella (verian datos viejos).
+     */
+    public void invalidate(String endpoint) {
+        String root = ListResponseCache.resourceRoot(endpoint);
+        calls.values().removeIf(call -> ListResponseCache.resourceRoot(call.endpoint).equals(root));
+    }
+
+    public Stats getStats() {
+        return new Stats(leaders.sum(), followers.sum(), calls.size());
+    }
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        int load(Consumer<List<T>> onChunk) throws IOException;
+    }
+
+    /**
+     * Peticion en curso: guarda los bloques publicados para los seguidores
+     * que se unen tarde.
+     */
+    private static final class Call<T> {
+        final String endpoint;
+        private final List<List<T>> chunks = new ArrayList<>();
+        private final List<Follower<T>> subscribers = new ArrayList<>();
+        private boolean done;
+        private int total;
+        private Exception error;
+
+        Call(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void publish(List<T> chunk) {
+            List<Follower<T>> pendientes;
+            synchronized (this) {
+                chunks.add(new ArrayList<>(chunk));
+                notifyAll();
+                pendientes = new ArrayList<>(subscribers);
+            }
+            pendientes.forEach(this::schedule);
+        }
+
+        void complete(int total, Exception error) {
+            List<Follower<T>> pendientes;
+            synchronized (this) {
+                this.total = total;
+                this.error = error;
+                this.done = true;
+                notifyAll();
+                pendientes = new ArrayList<>(subscribers);
+                subscribers.clear();
+            }
+            pendientes.forEach(this::schedule);
+        }
+
+        /** Registra un seguidor asincrono; recibe primero los bloques ya publicados. */
+        CompletableFuture<Integer> subscribe(Consumer<List<T>> onChunk, Executor executor) {
+            Follower<T> follower = new Follower<>(onChunk, executor);
+            synchronized (this) {
+                if (!done) subscribers.add(follower);
+            }
+            schedule(follower);
+            return follower.result;
+        }
+
+        private void schedule(Follower<T> follower) {
+            follower.executor.execute(() -> drain(follower));
+        }
+
+        /**
+         * Entrega lo pendiente al seguidor. Solo un hilo a la vez lo atiende:
+         * si otro ya lo hace, este vuelve enseguida y aquel recoge lo nuevo.
+         */
+        private void drain(Follower<T> follower) {
+            while (follower.draining.compareAndSet(false, true)) {
+                try {
+                    while (!follower.result.isDone()) {
+                        List<T> chunk;
+                        synchronized (this) {
+                            if (follower.next < chunks.size()) {
+                                chunk = chunks.get(follower.next++);
+                            } else {
+                                if (done) finish(follower);
+                                break;
+                            }
+                        }
+                        try {
+                            follower.onChunk.accept(new ArrayList<>(chunk));
+                        } catch (RuntimeException e) {
+                            follower.result.completeExceptionally(new CompletionException(e));
+                        }
+                    }
+                } finally {
+                    follower.draining.set(false);
+                }
+                synchronized (this) {
+                    // Lo publicado mientras se soltaba el turno lo recoge esta misma vuelta
+                    boolean pendiente = follower.next < chunks.size() || done;
+                    if (!pendiente || follower.result.isDone()) return;
+                }
+            }
+        }
+
+        private void finish(Follower<T> follower) {
+            if (error != null) {
+                follower.result.completeExceptionally(new CompletionException(new IOException(error.getMessage(), error)));
+            } else {
+                follower.result.complete(total);
+            }
+        }
+
+        /** Entrega los bloques en el hilo del seguidor, que espera a los que falten. */
+        int follow(Consumer<List<T>> onChunk) throws IOException {
+            int next = 0;
+            while (true) {
+                List<T> chunk;
+                synchronized (this) {
+                    while (next >= chunks.size() && !done) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException("Interrumpido esperando una peticion agrupada", e);
+                        }
+                    }
+                    if (next >= chunks.size()) {
+                        if (error != null) {
+                            throw new IOException(error.getMessage(), error);
+                        }
+                        return total;
+                    }
+                    chunk = chunks.get(next++);
+                }
+                // Fuera del monitor: el consumidor puede tardar sin frenar al lider
+                onChunk.accept(new ArrayList<>(chunk));
+            }
+        }
+    }
+
+    private static final class Follower<T> {
+        final Consumer<List<T>> onChunk;
+        final Executor executor;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final AtomicBoolean draining = new AtomicBoolean();
+        // Solo se toca con draining tomado
+        int next;
+
+        Follower(Consumer<List<T>> onChunk, Executor executor) {
+            this.onChunk = onChunk;
+            this.executor = executor;
+        }
+    }
+
+    public static class Stats {
+        public final long leaders;
+        public final long coalesced;
+        public final int inFlight;
+
+        public Stats(long leaders, long coalesced, int inFlight) {
+            this.leaders = leaders;
+            this.coalesced = coalesced;
+            this.inFlight = inFlight;
+        }
+
+        /** Fraccion de lecturas servidas sin peticion propia. */
+        public double coalescedRatio() {
+            long total = leaders + coalesced;
+            return total == 0 ? 0.0 : (double) coalesced / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("peticiones=%d agrupadas=%d enCurso=%d ratio=%.2f",
+                    leaders, coalesced, inFlight, coalescedRatio());
+        }
+    }
+}
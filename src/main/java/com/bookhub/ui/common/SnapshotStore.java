@@ -0,0 +1,279 @@
+package main.java.com.bookhub.ui.common;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import javax.swing.Timer;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantanea local en disco del ultimo listado conocido de cada coleccion,
+ * para pintar las tablas al arrancar sin esperar al backend.
+ *
+ * Formato binario (big-endian):
+ * magic(4) version(2) coleccion(UTF) guardado(8) registros(4) bytesPayload(8)
+ * payload: registros x [longitud(4) json UTF-8] y al final CRC32 del payload(8).
+ * El archivo se lee entero a un buffer del heap (no se mapea: en Windows un
+ * archivo mapeado no puede reemplazarse ni borrarse hasta que el GC libera el
+ * mapeo); un archivo con otra version o CRC incorrecto se descarta.
+ *
+ * Las escrituras de una misma coleccion se hacen de una en una y en el orden
+ * en que se pidieron: cada una recibe un numero de secuencia al pedirse y, si
+ * al llegar su turno ya se escribio una posterior, se descarta.
+ */
+public class SnapshotStore {
+
+    private static final int MAGIC = 0x42485331; // "BHS1"
+    private static final short FORMAT_VERSION = 1;
+
+    private static final SnapshotStore DEFAULT = new SnapshotStore(
+            Paths.get(ApiClient.getProperty("snapshot.dir",
+                    Paths.get(System.getProperty("user.home"), ".bookhub", "snapshots").toString())),
+            ApiClient.getBooleanProperty("snapshot.enabled", true),
+            ApiClient.getIntProperty("snapshot.diferidoMs", 5000));
+
+    private final Path dir;
+    private final boolean enabled;
+    private final int diferidoMs;
+    private final Gson gson = JsonSupport.gson();
+    // Colecciones con cambios sin guardar y como obtener su lista vigente
+    private final Map<String, Supplier<? extends List<?>>> pendientes = new ConcurrentHashMap<>();
+    private final Map<String, Orden> ordenes = new ConcurrentHashMap<>();
+
+    public SnapshotStore(Path dir, boolean enabled) {
+        this(dir, enabled, 5000);
+    }
+
+    public SnapshotStore(Path dir, boolean enabled, int diferidoMs) {
+        this.dir = dir;
+        this.enabled = enabled;
+        this.diferidoMs = diferidoMs;
+    }
+
+    public static SnapshotStore getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Lee la instantanea de la coleccion; null si no existe, esta deshabilitada
+     * o no supera las comprobaciones de formato.
+     */
+    public <T> Snapshot<T> read(String collection, Class<T> clazz) {
+        if (!enabled) return null;
+        Path file = fileFor(collection);
+        if (!Files.isRegularFile(file)) return null;
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+
+            if (buffer.getInt() != MAGIC) throw new IOException("magic invalido");
+            short version = buffer.getShort();
+            if (version != FORMAT_VERSION) throw new IOException("version " + version + " no soportada");
+
+            byte[] nameBytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(nameBytes);
+            if (!collection.equals(new String(nameBytes, StandardCharsets.UTF_8))) {
+                throw new IOException("coleccion distinta");
+            }
+
+            long savedAt = buffer.getLong();
+            int count = buffer.getInt();
+            long payloadLength = buffer.getLong();
+            if (payloadLength < 0 || payloadLength + 8 != buffer.remaining()) {
+                throw new IOException("longitud inconsistente");
+            }
+
+            ByteBuffer payload = buffer.slice();
+            payload.limit((int) payloadLength);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            buffer.position(buffer.position() + (int) payloadLength);
+            if (buffer.getLong() != crc.getValue()) throw new IOException("CRC incorrecto");
+
+            List<T> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                byte[] record = new byte[payload.getInt()];
+                payload.get(record);
+                items.add(gson.fromJson(new String(record, StandardCharsets.UTF_8), clazz));
+            }
+            return new Snapshot<>(Collections.unmodifiableList(items), savedAt);
+
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException | JsonParseException e) {
+            System.err.println("Advertencia: instantanea '" + collection + "' descartada (" + e.getMessage() + ").");
+            discard(file);
+            return null;
+        }
+    }
+
+    /** Escribe la instantanea en un temporal y la reemplaza de forma atomica. */
+    public <T> void write(String collection, List<T> items) throws IOException {
+        if (!enabled) return;
+        write(collection, items, ordenDe(collection).emitir());
+    }
+
+    /** Espera el turno de la coleccion; una escritura ya superada no se hace. */
+    private <T> void write(String collection, List<T> items, long secuencia) throws IOException {
+        Orden orden = ordenDe(collection);
+        synchronized (orden) {
+            if (secuencia <= orden.escrita) return;
+            writeFile(collection, items);
+            orden.escrita = secuencia;
+        }
+    }
+
+    private <T> void writeFile(String collection, List<T> items) throws IOException {
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, collection, ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                List<byte[]> records = new ArrayList<>(items.size());
+                long payloadLength = 0;
+                for (T item : items) {
+                    byte[] json = gson.toJson(item).getBytes(StandardCharsets.UTF_8);
+                    records.add(json);
+                    payloadLength += 4 + json.length;
+                }
+
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT_VERSION);
+                out.writeUTF(collection);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(records.size());
+                out.writeLong(payloadLength);
+
+                CRC32 crc = new CRC32();
+                DataOutputStream payload = new DataOutputStream(new CheckedOutputStream(nonClosing(out), crc));
+                for (byte[] record : records) {
+                    payload.writeInt(record.length);
+                    payload.write(record);
+                }
+                payload.flush();
+                out.writeLong(crc.getValue());
+            }
+
+            try {
+                Files.move(tmp, fileFor(collection), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Algunos sistemas no permiten el movimiento atomico; se reintenta sin el
+                Files.move(tmp, fileFor(collection), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Escribe en el pool de fondo; los errores solo se registran. */
+    public <T> void writeAsync(String collection, List<T> items) {
+        if (!enabled) return;
+        // Esta escritura ya incluye cualquier cambio diferido
+        pendientes.remove(collection);
+        List<T> copy = new ArrayList<>(items);
+        // El turno se toma ahora: el pool puede ejecutar dos escrituras a la vez
+        long secuencia = ordenDe(collection).emitir();
+        ApiExecutors.background().execute(() -> {
+            try {
+                write(collection, copy, secuencia);
+            } catch (IOException e) {
+                System.err.println("Advertencia: no se pudo guardar la instantanea '" + collection + "': " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Marca la coleccion como modificada sin escribirla: tras un delta o un
+     * evento guardar el listado completo costaria O(coleccion) por cada fila.
+     * Los cambios se agrupan en una sola escritura como mucho cada
+     * snapshot.diferidoMs; la lista se pide al escribir. Solo desde el EDT.
+     */
+    public void writeLater(String collection, Supplier<? extends List<?>> items) {
+        if (!enabled || pendientes.putIfAbsent(collection, items) != null) return;
+        Timer timer = new Timer(diferidoMs, e -> {
+            Supplier<? extends List<?>> pendiente = pendientes.remove(collection);
+            if (pendiente != null) writeAsync(collection, pendiente.get());
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+
+    /**
+     * Guarda en el acto los cambios diferidos de la coleccion, p. ej. al
+     * cerrar la ventana (el pool de fondo no sobrevive a la salida). Si hay
+     * una escritura en curso, espera a que termine.
+     */
+    public void flush(String collection) {
+        Supplier<? extends List<?>> pendiente = pendientes.remove(collection);
+        if (pendiente == null) return;
+        try {
+            write(collection, pendiente.get());
+        } catch (IOException e) {
+            System.err.println("Advertencia: no se pudo guardar la instantanea '" + collection + "': " + e.getMessage());
+        }
+    }
+
+    private Orden ordenDe(String collection) {
+        return ordenes.computeIfAbsent(collection, c -> new Orden());
+    }
+
+    private Path fileFor(String collection) {
+        return dir.resolve(collection + ".snap");
+    }
+
+    private static void discard(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // se volvera a sobrescribir en la proxima carga correcta
+        }
+    }
+
+    private static OutputStream nonClosing(OutputStream out) {
+        return new OutputStream() {
+            @Override public void write(int b) throws IOException { out.write(b); }
+            @Override public void write(byte[] b, int off, int len) throws IOException { out.write(b, off, len); }
+            @Override public void flush() throws IOException { out.flush(); }
+        };
+    }
+
+    /** Turnos de escritura de una coleccion; protegido por su propio monitor. */
+    private static final class Orden {
+        private long emitida;
+        long escrita;
+
+        synchronized long emitir() {
+            return ++emitida;
+        }
+    }
+
+    /**
+     * Contenido de una instantanea y el momento en que se guardo.
+     */
+    public static class Snapshot<T> {
+        public final List<T> items;
+        public final long savedAt;
+
+        public Snapshot(List<T> items, long savedAt) {
+            this.items = items;
+            this.savedAt = savedAt;
+        }
+    }
+}
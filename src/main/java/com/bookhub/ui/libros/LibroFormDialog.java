@@ -3,14 +3,17 @@ package main.java.com.bookhub.ui.libros;
 import com.bookhub.dto.LibroRequest;
 import com.bookhub.dto.LibroResponse;
 import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.ApiExecutors;
+import com.bookhub.ui.common.DeltaSync;
+import com.bookhub.ui.common.EntityStore;
+import com.bookhub.ui.common.JsonSupport;
+import com.bookhub.ui.common.OptimisticEdit;
 import java.awt.BorderLayout;
 import java.awt.Frame;
 import java.awt.GridLayout;
-import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
@@ -23,18 +26,12 @@ import javax.swing.JTextField;
 
 /**
  * Dialogo para crear/editar libros con validaciones locales y manejo de errores de API.
+ * Al guardar, la lista muestra el cambio en el acto; si el servidor lo rechaza
+ * se revierte y el dialogo sigue abierto con lo escrito.
  */
 public class LibroFormDialog extends JDialog {
 
-    private static final List<String> CATEGORIAS_BASE = Arrays.asList(
-        "Literatura",
-        "Tecnologia",
-        "Ciencia",
-        "Historia",
-        "Infantil",
-        "Arte",
-        "Otro"
-    );
+    private static final List<String> CATEGORIAS_BASE = LibroValidator.CATEGORIAS_BASE;
 
     private final JTextField isbnField = new JTextField(20);
     private final JTextField tituloField = new JTextField(40);
@@ -42,23 +39,23 @@ public class LibroFormDialog extends JDialog {
     private final JComboBox<String> categoriaCombo = new JComboBox<>();
     private final JCheckBox disponibleCheck = new JCheckBox("Disponible para prestamo", true);
 
+    private final JButton btnSave = new JButton("Guardar");
+
     private final ApiClient api;
     private final LibroResponse editing;
-    private final Runnable onSaved;
-    private final Set<String> existingIsbns;
-
-    public LibroFormDialog(Frame owner, ApiClient api, LibroResponse libro, List<LibroResponse> actuales, Runnable onSaved) {
+    private final Consumer<DeltaSync.Delta<LibroResponse>> vista;
+    private final EntityStore<String, LibroResponse> catalogo;
+
+    /**
+     * @param vista aplica los cambios locales sobre la lista (ver OptimisticEdit)
+     */
+    public LibroFormDialog(Frame owner, ApiClient api, LibroResponse libro, EntityStore<String, LibroResponse> catalogo,
+                           Consumer<DeltaSync.Delta<LibroResponse>> vista) {
         super(owner, true);
         this.api = api;
         this.editing = libro;
-        this.onSaved = onSaved;
-        this.existingIsbns = new HashSet<>();
-        if (actuales != null) {
-            actuales.stream()
-                .map(LibroResponse::getIsbn)
-                .filter(isbn -> isbn != null && !isbn.isBlank())
-                .forEach(existingIsbns::add);
-        }
+        this.vista = vista;
+        this.catalogo = catalogo;
 
         setTitle(libro == null ? "Registrar libro" : "Editar libro");
         initComponents();
@@ -93,7 +90,6 @@ public class LibroFormDialog extends JDialog {
         add(center, BorderLayout.CENTER);
 
         JPanel bottom = new JPanel();
-        JButton btnSave = new JButton("Guardar");
         JButton btnCancel = new JButton("Cancelar");
         bottom.add(btnSave);
         bottom.add(btnCancel);
@@ -127,37 +123,10 @@ public class LibroFormDialog extends JDialog {
         String isbn = isbnField.getText().trim();
         String titulo = tituloField.getText().trim();
         String autor = autorField.getText().trim();
-        Object selectedCategoria = categoriaCombo.getSelectedItem();
+        Object selectedCategoria = categoriaCombo.getSelectedIndex() > 0 ? categoriaCombo.getSelectedItem() : null;
         String categoria = selectedCategoria != null ? selectedCategoria.toString() : "";
         boolean disponible = disponibleCheck.isSelected();
 
-        // Validaciones locales
-        if (isbn.isBlank()) {
-            showValidation("El ISBN es obligatorio.");
-            isbnField.requestFocus();
-            return;
-        }
-        if (editing == null && existingIsbns.contains(isbn)) {
-            showValidation("Ya existe un libro con el ISBN indicado.");
-            isbnField.requestFocus();
-            return;
-        }
-        if (titulo.isBlank()) {
-            showValidation("El titulo es obligatorio.");
-            tituloField.requestFocus();
-            return;
-        }
-        if (autor.isBlank()) {
-            showValidation("El autor es obligatorio.");
-            autorField.requestFocus();
-            return;
-        }
-        if (categoriaCombo.getSelectedIndex() <= 0) {
-            showValidation("Seleccione una categoria valida.");
-            categoriaCombo.requestFocus();
-            return;
-        }
-
         LibroRequest request = new LibroRequest();
         request.setIsbn(isbn);
         request.setTitulo(titulo);
@@ -165,25 +134,42 @@ public class LibroFormDialog extends JDialog {
         request.setCategoria(categoria);
         request.setDisponible(disponible);
 
-        try {
-            ApiClient.ApiResponse resp;
-            if (editing == null) {
-                resp = api.post("/libros", request);
-            } else {
-                resp = api.put("/libros/" + editing.getIsbn(), request);
+        // Validaciones locales (las mismas que aplica la importacion masiva)
+        LibroValidator.Error error = LibroValidator.validate(request, editing == null, catalogo::contains);
+        if (error != null) {
+            showValidation(error.mensaje);
+            switch (error.campo) {
+                case ISBN -> isbnField.requestFocus();
+                case TITULO -> tituloField.requestFocus();
+                case AUTOR -> autorField.requestFocus();
+                case CATEGORIA -> categoriaCombo.requestFocus();
             }
-            if (resp.isSuccess()) {
+            return;
+        }
+
+        OptimisticEdit<String, LibroResponse> edit =
+            OptimisticEdit.guardar(catalogo, JsonSupport.overlay(editing, request, LibroResponse.class));
+        vista.accept(edit.aplicar());
+        btnSave.setEnabled(false);
+
+        CompletableFuture<ApiClient.ApiResponse> call = editing == null
+            ? api.postAsync("/libros", request)
+            : api.putAsync("/libros/" + editing.getIsbn(), request);
+        call.whenCompleteAsync((resp, failure) -> {
+            btnSave.setEnabled(true);
+            if (failure == null && resp.isSuccess()) {
+                vista.accept(edit.confirmar(resp.bodyAs(LibroResponse.class)));
                 JOptionPane.showMessageDialog(this, "Libro guardado correctamente.");
-                if (onSaved != null) {
-                    onSaved.run();
-                }
                 dispose();
+                return;
+            }
+            vista.accept(edit.revertir());
+            if (failure != null) {
+                JOptionPane.showMessageDialog(this, "Error de comunicacion: " + ApiExecutors.unwrap(failure).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             } else {
                 handleError(resp);
             }
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(this, "Error de comunicacion: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ApiExecutors.edt());
     }
 
     private void handleError(ApiClient.ApiResponse resp) {
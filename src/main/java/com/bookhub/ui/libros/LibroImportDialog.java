@@ -0,0 +1,162 @@
+package main.java.com.bookhub.ui.libros;
+
+import com.bookhub.dto.LibroResponse;
+import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.ApiExecutors;
+import com.bookhub.ui.common.EntityStore;
+import java.awt.BorderLayout;
+import java.awt.Frame;
+import java.awt.GridLayout;
+import java.io.File;
+import java.nio.file.Path;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import javax.swing.WindowConstants;
+import javax.swing.filechooser.FileNameExtensionFilter;
+
+/**
+ * Dialogo de importacion masiva: elige el archivo, ofrece reanudar una
+ * importacion previa y muestra el avance y el ritmo mientras LibroImporter trabaja.
+ */
+public class LibroImportDialog extends JDialog {
+
+    private final ApiClient api;
+    private final EntityStore<String, LibroResponse> catalogo;
+    private final Runnable onFinished;
+
+    private final JLabel archivoLabel = new JLabel("Ningun archivo seleccionado");
+    private final JLabel leidosLabel = new JLabel(" ");
+    private final JLabel resultadoLabel = new JLabel(" ");
+    private final JLabel ritmoLabel = new JLabel(" ");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JButton btnElegir = new JButton("Elegir archivo...");
+    private final JButton btnCancelar = new JButton("Cancelar");
+    private final JButton btnCerrar = new JButton("Cerrar");
+
+    private LibroImporter importer;
+    // "la linea" o, en un arreglo JSON, "el elemento"
+    private String posicion = "la linea";
+
+    public LibroImportDialog(Frame owner, ApiClient api, EntityStore<String, LibroResponse> catalogo, Runnable onFinished) {
+        super(owner, "Importar libros", false);
+        this.api = api;
+        this.catalogo = catalogo;
+        this.onFinished = onFinished;
+
+        initComponents();
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    private void initComponents() {
+        setLayout(new BorderLayout(10, 10));
+        setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                if (importer == null) dispose();
+            }
+        });
+
+        JPanel center = new JPanel(new GridLayout(0, 1, 4, 4));
+        center.add(new JLabel("CSV con cabecera (isbn,titulo,autor,categoria[,disponible]), JSON Lines (.jsonl) o arreglo JSON"));
+        center.add(archivoLabel);
+        progressBar.setStringPainted(true);
+        center.add(progressBar);
+        center.add(leidosLabel);
+        center.add(resultadoLabel);
+        center.add(ritmoLabel);
+        add(center, BorderLayout.CENTER);
+
+        JPanel bottom = new JPanel();
+        bottom.add(btnElegir);
+        bottom.add(btnCancelar);
+        bottom.add(btnCerrar);
+        add(bottom, BorderLayout.SOUTH);
+
+        btnCancelar.setEnabled(false);
+        btnElegir.addActionListener(e -> chooseAndStart());
+        btnCancelar.addActionListener(e -> {
+            btnCancelar.setEnabled(false);
+            importer.cancel();
+        });
+        btnCerrar.addActionListener(e -> dispose());
+    }
+
+    private void chooseAndStart() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV, JSON o JSON Lines", "csv", "jsonl", "json", "ndjson"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        File file = chooser.getSelectedFile();
+        Path origen = file.toPath();
+        LibroImporter nuevo = new LibroImporter(api, catalogo, origen,
+            ApiClient.getIntProperty("libros.importacion.concurrencia", 4));
+
+        boolean reanudar = false;
+        String enArchivo = nuevo.getFormato() == LibroImporter.Formato.JSON ? "el elemento" : "la linea";
+        long guardada = nuevo.getLineaGuardada();
+        if (guardada > 0) {
+            int option = JOptionPane.showConfirmDialog(this,
+                "Hay una importacion previa de este archivo hasta " + enArchivo + " " + guardada + ". Reanudar desde ahi?",
+                "Reanudar importacion", JOptionPane.YES_NO_CANCEL_OPTION);
+            if (option == JOptionPane.CANCEL_OPTION || option == JOptionPane.CLOSED_OPTION) return;
+            reanudar = option == JOptionPane.YES_OPTION;
+        }
+
+        importer = nuevo;
+        posicion = enArchivo;
+        archivoLabel.setText(file.getName() + " (" + nuevo.getFormato() + ")");
+        btnElegir.setEnabled(false);
+        btnCerrar.setEnabled(false);
+        btnCancelar.setEnabled(true);
+
+        nuevo.start(reanudar, p -> SwingUtilities.invokeLater(() -> showProgress(p)))
+            .whenCompleteAsync((fin, error) -> {
+                importer = null;
+                btnElegir.setEnabled(true);
+                btnCerrar.setEnabled(true);
+                btnCancelar.setEnabled(false);
+                if (onFinished != null) {
+                    onFinished.run();
+                }
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Error en la importacion: " + ApiExecutors.unwrap(error).getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                showSummary(nuevo, fin);
+            }, ApiExecutors.edt());
+    }
+
+    private void showProgress(LibroImporter.Progreso p) {
+        progressBar.setValue(p.porcentaje());
+        String desde = p.lineaInicial > 0 ? " (reanudado tras " + posicion + " " + p.lineaInicial + ")" : "";
+        leidosLabel.setText("Registros leidos: " + p.leidos + desde);
+        resultadoLabel.setText("Importados: " + p.importados + "   Rechazados: " + p.rechazados + "   En vuelo: " + p.enVuelo);
+        ritmoLabel.setText(String.format("Ritmo: %.1f libros/s", p.porSegundo()));
+    }
+
+    private void showSummary(LibroImporter importer, LibroImporter.Progreso fin) {
+        String estado = fin.detenido != null ? "Importacion detenida: " + fin.detenido + "."
+            : fin.cancelado ? "Importacion cancelada." : "Importacion terminada.";
+        StringBuilder msg = new StringBuilder(estado)
+            .append("\nImportados: ").append(fin.importados)
+            .append("\nRechazados: ").append(fin.rechazados)
+            .append(String.format("%nRitmo medio: %.1f libros/s", fin.porSegundo()));
+        if (fin.rechazados > 0) {
+            msg.append("\nDetalle de rechazos: ").append(importer.getRechazosPath());
+        }
+        if (fin.cancelado || fin.detenido != null) {
+            msg.append("\nPuede reanudarla eligiendo de nuevo el mismo archivo.");
+        }
+        JOptionPane.showMessageDialog(this, msg.toString(), "Importacion",
+            fin.rechazados > 0 || fin.detenido != null ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+    }
+}
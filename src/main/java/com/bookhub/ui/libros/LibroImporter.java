@@ -0,0 +1,671 @@
+package main.java.com.bookhub.ui.libros;
+
+import com.bookhub.dto.LibroRequest;
+import com.bookhub.dto.LibroResponse;
+import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.ApiExecutors;
+import com.bookhub.ui.common.CountingInputStream;
+import com.bookhub.ui.common.EntityStore;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Importacion masiva de libros desde CSV (con cabecera), JSON Lines o un
+ * arreglo JSON. El archivo se lee registro a registro en un hilo propio (el
+ * arreglo en streaming, elemento a elemento); cada registro se valida con
+ * LibroValidator y se envia con POST /libros. Un semaforo limita las
+ * peticiones en vuelo y, cuando se agota, la lectura espera (contrapresion),
+ * asi que la memoria no depende del tamano del archivo.
+ *
+ * En CSV un campo entre comillas puede contener saltos de linea; un registro
+ * se identifica por la linea en la que empieza. En un arreglo JSON la
+ * posicion es el numero de elemento.
+ *
+ * Solo una respuesta 4xx del backend es un rechazo del registro. Un fallo de
+ * comunicacion, un circuito abierto, un 5xx, un 408 o un 429 detienen la
+ * importacion: ese registro queda sin resolver y se reintenta al reanudar.
+ *
+ * Los rechazos se escriben en "archivo.rechazos.csv" y el avance en
+ * "archivo.progreso": la ultima linea hasta la que todo esta resuelto, mas las
+ * posteriores ya importadas. Una importacion cancelada, detenida o
+ * interrumpida puede reanudarse desde ahi sin repetir lo ya resuelto.
+ */
+public class LibroImporter {
+
+    public enum Formato { CSV, JSONL, JSON }
+
+    private static final long CHECKPOINT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final String[] COLUMNAS_OBLIGATORIAS = {"isbn", "titulo", "autor", "categoria"};
+    // Una comilla sin cerrar no debe arrastrar el resto del archivo a un solo registro
+    private static final int MAX_LINEAS_REGISTRO = 100;
+
+    private final ApiClient api;
+    private final EntityStore<String, LibroResponse> catalogo;
+    private final Path origen;
+    private final Formato formato;
+    private final int maxEnVuelo;
+    private final Path rechazosPath;
+    private final Path progresoPath;
+
+    private final Semaphore permisos;
+    private volatile boolean cancelado;
+    // Motivo por el que se detuvo sola, o null
+    private volatile String detenido;
+
+    private final AtomicLong leidos = new AtomicLong();
+    private final AtomicLong importados = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+
+    // ISBN validos ya leidos de este archivo (solo los toca el hilo lector)
+    private final Set<String> isbnsAceptados = new HashSet<>();
+
+    // Lineas enviadas y aun sin respuesta; protegido por "this"
+    private final TreeSet<Long> enVuelo = new TreeSet<>();
+    // Lineas que no llegaron a resolverse: el checkpoint no pasa de ellas; protegido por "this"
+    private final TreeSet<Long> sinResolver = new TreeSet<>();
+    // Lineas importadas por encima del checkpoint; se guardan con el progreso; protegido por "this"
+    private final TreeSet<Long> importadasTrasCheckpoint = new TreeSet<>();
+    // Lineas tras lineaInicial resueltas por la importacion anterior (solo el hilo lector)
+    private Set<Long> yaResueltas = Set.of();
+    private long ultimaLinea;
+    private long ultimoCheckpoint;
+
+    private Writer rechazos;
+    private CountingInputStream contador;
+    private long bytesTotales;
+    private long inicio;
+    private long lineaInicial;
+
+    public LibroImporter(ApiClient api, EntityStore<String, LibroResponse> catalogo, Path origen, int maxEnVuelo) {
+        this.api = api;
+        this.catalogo = catalogo;
+        this.origen = origen;
+        this.formato = detectarFormato(origen);
+        this.maxEnVuelo = Math.max(1, maxEnVuelo);
+        this.permisos = new Semaphore(this.maxEnVuelo);
+        this.rechazosPath = origen.resolveSibling(origen.getFileName() + ".rechazos.csv");
+        this.progresoPath = origen.resolveSibling(origen.getFileName() + ".progreso");
+    }
+
+    public Formato getFormato() {
+        return formato;
+    }
+
+    public Path getRechazosPath() {
+        return rechazosPath;
+    }
+
+    /**
+     * Linea guardada por una importacion anterior del mismo archivo, o 0 si no
+     * hay progreso o el archivo cambio de tamano desde entonces.
+     */
+    public long getLineaGuardada() {
+        if (!Files.exists(progresoPath)) return 0;
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(progresoPath, StandardCharsets.UTF_8)) {
+            props.load(reader);
+            long tamano = Long.parseLong(props.getProperty("tamano", "-1"));
+            if (tamano != Files.size(origen)) return 0;
+            return Long.parseLong(props.getProperty("linea", "0"));
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** Detiene la lectura; las peticiones en vuelo terminan y se guarda el progreso. */
+    public void cancel() {
+        cancelado = true;
+    }
+
+    /**
+     * Inicia la importacion en un hilo propio.
+     *
+     * @param reanudar   continuar desde getLineaGuardada() en lugar de empezar de cero
+     * @param onProgress recibe el avance periodicamente (fuera del EDT)
+     */
+    public CompletableFuture<Progreso> start(boolean reanudar, Consumer<Progreso> onProgress) {
+        CompletableFuture<Progreso> resultado = new CompletableFuture<>();
+        Thread worker = new Thread(() -> {
+            try {
+                importar(reanudar, onProgress);
+                Progreso fin = progreso(true);
+                onProgress.accept(fin);
+                resultado.complete(fin);
+            } catch (Throwable t) {
+                resultado.completeExceptionally(t);
+            }
+        }, "bookhub-import");
+        worker.setDaemon(true);
+        worker.start();
+        return resultado;
+    }
+
+    private void importar(boolean reanudar, Consumer<Progreso> onProgress) throws IOException, InterruptedException {
+        lineaInicial = reanudar ? getLineaGuardada() : 0;
+        if (lineaInicial == 0) {
+            Files.deleteIfExists(rechazosPath);
+            Files.deleteIfExists(progresoPath);
+        } else {
+            yaResueltas = leerResueltas(lineaInicial);
+        }
+        bytesTotales = Files.size(origen);
+        inicio = System.nanoTime();
+        long ultimoAviso = 0;
+
+        boolean nuevoRechazos = !Files.exists(rechazosPath);
+        try (InputStream in = Files.newInputStream(origen);
+             BufferedWriter writer = Files.newBufferedWriter(rechazosPath, StandardCharsets.UTF_8,
+                 StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            rechazos = writer;
+            if (nuevoRechazos) {
+                writer.write("linea,motivo,registro");
+                writer.newLine();
+            }
+            contador = new CountingInputStream(in);
+            Reader texto = new InputStreamReader(contador, StandardCharsets.UTF_8);
+            Lector lector = formato == Formato.JSON
+                ? new LectorArreglo(new JsonReader(texto))
+                : new LectorLineas(new BufferedReader(texto), formato == Formato.CSV);
+
+            try {
+                Map<String, Integer> columnas = null;
+                char separador = ',';
+                Registro registro;
+                while (!cancelado && detenido == null && (registro = lector.siguiente()) != null) {
+                    long linea = registro.posicion;
+                    String line = registro.texto;
+                    if (formato == Formato.CSV && columnas == null) {
+                        separador = detectarSeparador(line);
+                        columnas = leerCabecera(line, separador);
+                        avanzar(linea);
+                        continue;
+                    }
+                    if (linea <= lineaInicial || line.isBlank() || yaResueltas.contains(linea)) {
+                        avanzar(linea);
+                        continue;
+                    }
+
+                    leidos.incrementAndGet();
+                    procesar(linea, line, columnas, separador);
+
+                    long ahora = System.nanoTime();
+                    if (ahora - ultimoAviso > PROGRESS_INTERVAL_NANOS) {
+                        ultimoAviso = ahora;
+                        onProgress.accept(progreso(false));
+                    }
+                }
+            } finally {
+                // Esperar a las peticiones en vuelo antes de cerrar el archivo de rechazos
+                permisos.acquireUninterruptibly(maxEnVuelo);
+                permisos.release(maxEnVuelo);
+                guardarCheckpoint(true);
+            }
+        }
+
+        if (!cancelado && detenido == null) {
+            Files.deleteIfExists(progresoPath);
+        }
+    }
+
+    /**
+     * Lineas tras la dada que la importacion anterior ya resolvio: las
+     * importadas que guardo con el progreso y las que figuran en el archivo de
+     * rechazos (que se vuelca tras cada rechazo).
+     */
+    private Set<Long> leerResueltas(long desde) throws IOException {
+        Set<Long> lineas = new HashSet<>();
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(progresoPath, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        for (String linea : props.getProperty("importadas", "").split(",")) {
+            if (!linea.isBlank()) lineas.add(Long.parseLong(linea.trim()));
+        }
+
+        if (Files.exists(rechazosPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(rechazosPath, StandardCharsets.UTF_8)) {
+                LectorLineas lector = new LectorLineas(reader, true);
+                lector.siguiente(); // cabecera
+                Registro registro;
+                while ((registro = lector.siguiente()) != null) {
+                    int coma = registro.texto.indexOf(',');
+                    if (coma <= 0) continue;
+                    try {
+                        long linea = Long.parseLong(registro.texto.substring(0, coma));
+                        if (linea > desde) lineas.add(linea);
+                    } catch (NumberFormatException e) {
+                        // Registro cortado por un cierre abrupto: esa linea se vuelve a procesar
+                    }
+                }
+            }
+        }
+        return lineas;
+    }
+
+    private void procesar(long linea, String line, Map<String, Integer> columnas, char separador)
+            throws IOException, InterruptedException {
+        LibroRequest request;
+        try {
+            request = formato == Formato.CSV ? desdeCsv(line, columnas, separador) : desdeJson(line);
+        } catch (IllegalArgumentException | JsonParseException | IllegalStateException e) {
+            rechazar(linea, "Formato invalido: " + e.getMessage(), line);
+            avanzar(linea);
+            return;
+        }
+
+        String base = LibroValidator.categoriaBase(request.getCategoria());
+        if (base != null) request.setCategoria(base);
+
+        // Misma regla que el formulario, mas los ISBN ya aceptados de este archivo
+        LibroValidator.Error error = LibroValidator.validate(request, true,
+            isbn -> catalogo.contains(isbn) || isbnsAceptados.contains(isbn));
+        if (error != null) {
+            rechazar(linea, error.mensaje, line);
+            avanzar(linea);
+            return;
+        }
+        isbnsAceptados.add(request.getIsbn());
+
+        // Contrapresion: sin permiso libre la lectura se detiene aqui
+        while (!permisos.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+            if (cancelado || detenido != null) {
+                // La linea no se envio: el checkpoint no debe pasar de ella
+                return;
+            }
+        }
+        synchronized (this) {
+            enVuelo.add(linea);
+            ultimaLinea = linea;
+        }
+
+        CompletableFuture<ApiClient.ApiResponse> envio;
+        try {
+            envio = api.postAsync("/libros", request);
+        } catch (RuntimeException e) {
+            envio = CompletableFuture.failedFuture(e);
+        }
+        envio.whenComplete((resp, failure) -> {
+            boolean rechazada = false;
+            boolean importada = false;
+            try {
+                if (failure != null) {
+                    // Circuito abierto, limite de ritmo o red: el registro no tiene la culpa
+                    detener("Error de comunicacion en la linea " + linea + ": " + ApiExecutors.unwrap(failure).getMessage());
+                } else if (esTransitorio(resp.status)) {
+                    detener("El servidor respondio " + resp.status + " en la linea " + linea);
+                } else if (!resp.isSuccess()) {
+                    String body = resp.body != null && !resp.body.isBlank() ? resp.body.trim() : "sin detalle";
+                    rechazar(linea, "Error (" + resp.status + "): " + body, line);
+                    rechazada = true;
+                } else {
+                    importados.incrementAndGet();
+                    importada = true;
+                    LibroResponse creado = resp.bodyAs(LibroResponse.class);
+                    if (creado != null) catalogo.put(creado);
+                }
+            } catch (IOException e) {
+                detener("No se pudo escribir el rechazo de la linea " + linea + ": " + e.getMessage());
+            } finally {
+                synchronized (this) {
+                    enVuelo.remove(linea);
+                    if (importada) {
+                        importadasTrasCheckpoint.add(linea);
+                    } else if (!rechazada) {
+                        sinResolver.add(linea);
+                    }
+                }
+                permisos.release();
+                guardarCheckpoint(false);
+            }
+        });
+    }
+
+    /** Respuestas que no dicen nada del registro: se reintentan al reanudar. */
+    private static boolean esTransitorio(int status) {
+        return status >= 500 || status == 408 || status == 429;
+    }
+
+    /** Deja de leer; se conserva el primer motivo. */
+    private synchronized void detener(String motivo) {
+        if (detenido == null) {
+            detenido = motivo;
+            System.err.println("Importacion detenida: " + motivo);
+        }
+    }
+
+    private synchronized void avanzar(long linea) {
+        ultimaLinea = linea;
+    }
+
+    /** Ultima linea hasta la que todas estan resueltas (importadas o rechazadas). */
+    private synchronized long lineaSegura() {
+        long segura = ultimaLinea;
+        if (!enVuelo.isEmpty()) segura = Math.min(segura, enVuelo.first() - 1);
+        if (!sinResolver.isEmpty()) segura = Math.min(segura, sinResolver.first() - 1);
+        return segura;
+    }
+
+    private void guardarCheckpoint(boolean forzar) {
+        long linea;
+        synchronized (this) {
+            long ahora = System.nanoTime();
+            if (!forzar && ahora - ultimoCheckpoint < CHECKPOINT_INTERVAL_NANOS) return;
+            ultimoCheckpoint = ahora;
+            linea = lineaSegura();
+            importadasTrasCheckpoint.headSet(linea, true).clear();
+
+            Properties props = new Properties();
+            props.setProperty("linea", String.valueOf(linea));
+            props.setProperty("tamano", String.valueOf(bytesTotales));
+            StringBuilder importadas = new StringBuilder();
+            for (long l : importadasTrasCheckpoint) {
+                if (importadas.length() > 0) importadas.append(',');
+                importadas.append(l);
+            }
+            props.setProperty("importadas", importadas.toString());
+            try {
+                Path tmp = progresoPath.resolveSibling(progresoPath.getFileName() + ".tmp");
+                try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    props.store(writer, "Progreso de importacion de " + origen.getFileName());
+                }
+                Files.move(tmp, progresoPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("No se pudo guardar el progreso de importacion: " + e.getMessage());
+            }
+        }
+    }
+
+    private void rechazar(long linea, String motivo, String registro) throws IOException {
+        synchronized (rechazos) {
+            rechazos.write(linea + "," + csvEscape(motivo) + "," + csvEscape(registro));
+            rechazos.write(System.lineSeparator());
+            // Al reanudar tras un cierre abrupto este archivo dice que lineas ya se rechazaron
+            rechazos.flush();
+        }
+        rechazados.incrementAndGet();
+    }
+
+    private Progreso progreso(boolean terminado) {
+        int pendientes;
+        synchronized (this) {
+            pendientes = enVuelo.size();
+        }
+        return new Progreso(leidos.get(), importados.get(), rechazados.get(), pendientes,
+            contador != null ? contador.getCount() : 0, bytesTotales, lineaInicial,
+            System.nanoTime() - inicio, terminado, cancelado, detenido);
+    }
+
+    // ---- Formatos ----
+
+    /** .csv por extension; en otro caso un '[' inicial indica un arreglo JSON. */
+    static Formato detectarFormato(Path origen) {
+        if (origen.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            return Formato.CSV;
+        }
+        try (Reader reader = Files.newBufferedReader(origen, StandardCharsets.UTF_8)) {
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '\uFEFF' || Character.isWhitespace(c)) continue;
+                return c == '[' ? Formato.JSON : Formato.JSONL;
+            }
+        } catch (IOException e) {
+            // El error se informara al importar
+        }
+        return Formato.JSONL;
+    }
+
+    /** Registro tal como viene en el archivo y su posicion (linea o elemento). */
+    private static final class Registro {
+        final long posicion;
+        final String texto;
+
+        Registro(long posicion, String texto) {
+            this.posicion = posicion;
+            this.texto = texto;
+        }
+    }
+
+    private interface Lector {
+        /** @return null al terminar el archivo */
+        Registro siguiente() throws IOException;
+    }
+
+    /** Un registro por linea; en CSV continua en la siguiente mientras haya comillas abiertas. */
+    private static final class LectorLineas implements Lector {
+        private final BufferedReader reader;
+        private final boolean csv;
+        private long linea;
+
+        LectorLineas(BufferedReader reader, boolean csv) {
+            this.reader = reader;
+            this.csv = csv;
+        }
+
+        @Override
+        public Registro siguiente() throws IOException {
+            String line = reader.readLine();
+            if (line == null) return null;
+            long inicio = ++linea;
+            if (!csv || !comillasAbiertas(line)) return new Registro(inicio, line);
+
+            StringBuilder registro = new StringBuilder(line);
+            int lineas = 1;
+            // Si no se cierran, parseCsv lo rechaza como "comillas sin cerrar"
+            while (lineas < MAX_LINEAS_REGISTRO && comillasAbiertas(registro)) {
+                String siguiente = reader.readLine();
+                if (siguiente == null) break;
+                linea++;
+                lineas++;
+                registro.append('\n').append(siguiente);
+            }
+            return new Registro(inicio, registro.toString());
+        }
+
+        /** Con "" como escape, un numero impar de comillas deja un campo abierto. */
+        private static boolean comillasAbiertas(CharSequence texto) {
+            int comillas = 0;
+            for (int i = 0; i < texto.length(); i++) {
+                if (texto.charAt(i) == '"') comillas++;
+            }
+            return comillas % 2 != 0;
+        }
+    }
+
+    /** Arreglo JSON leido elemento a elemento, sin cargarlo entero. */
+    private static final class LectorArreglo implements Lector {
+        private final JsonReader reader;
+        private long elemento;
+
+        LectorArreglo(JsonReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Registro siguiente() throws IOException {
+            try {
+                if (elemento == 0) reader.beginArray();
+                if (!reader.hasNext()) return null;
+                elemento++;
+                return new Registro(elemento, JsonParser.parseReader(reader).toString());
+            } catch (JsonParseException | IllegalStateException e) {
+                // Sin estructura valida no se puede seguir leyendo el arreglo
+                throw new IOException("JSON invalido cerca del elemento " + elemento + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static char detectarSeparador(String cabecera) {
+        long comas = cabecera.chars().filter(c -> c == ',').count();
+        long puntoYComa = cabecera.chars().filter(c -> c == ';').count();
+        return puntoYComa > comas ? ';' : ',';
+    }
+
+    private static Map<String, Integer> leerCabecera(String line, char separador) throws IOException {
+        List<String> nombres = parseCsv(line.replace("\uFEFF", ""), separador);
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < nombres.size(); i++) {
+            columnas.put(nombres.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String obligatoria : COLUMNAS_OBLIGATORIAS) {
+            if (!columnas.containsKey(obligatoria)) {
+                throw new IOException("Falta la columna \"" + obligatoria + "\" en la cabecera del CSV.");
+            }
+        }
+        return columnas;
+    }
+
+    private static LibroRequest desdeCsv(String line, Map<String, Integer> columnas, char separador) {
+        List<String> valores = parseCsv(line, separador);
+        LibroRequest request = new LibroRequest();
+        request.setIsbn(valor(valores, columnas.get("isbn")));
+        request.setTitulo(valor(valores, columnas.get("titulo")));
+        request.setAutor(valor(valores, columnas.get("autor")));
+        request.setCategoria(valor(valores, columnas.get("categoria")));
+        request.setDisponible(parseDisponible(valor(valores, columnas.get("disponible"))));
+        return request;
+    }
+
+    private static LibroRequest desdeJson(String line) {
+        JsonObject obj = JsonParser.parseString(line).getAsJsonObject();
+        LibroRequest request = new LibroRequest();
+        request.setIsbn(texto(obj, "isbn"));
+        request.setTitulo(texto(obj, "titulo"));
+        request.setAutor(texto(obj, "autor"));
+        request.setCategoria(texto(obj, "categoria"));
+        request.setDisponible(parseDisponible(texto(obj, "disponible")));
+        return request;
+    }
+
+    private static String valor(List<String> valores, Integer indice) {
+        if (indice == null || indice >= valores.size()) return "";
+        return valores.get(indice).trim();
+    }
+
+    private static String texto(JsonObject obj, String campo) {
+        JsonElement e = obj.get(campo);
+        return e == null || e.isJsonNull() ? "" : e.getAsString().trim();
+    }
+
+    /** Vacio equivale a disponible, igual que la casilla del formulario. */
+    private static boolean parseDisponible(String valor) {
+        switch (valor.toLowerCase(Locale.ROOT)) {
+            case "", "true", "si", "1", "disponible":
+                return true;
+            case "false", "no", "0", "prestado":
+                return false;
+            default:
+                throw new IllegalArgumentException("valor de disponible no reconocido \"" + valor + "\"");
+        }
+    }
+
+    /** Campos de una linea CSV con comillas dobles ("" escapa una comilla). */
+    static List<String> parseCsv(String line, char separador) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (entreComillas) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        actual.append('"');
+                        i++;
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == separador) {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("comillas sin cerrar");
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    private static String csvEscape(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Fotografia del avance de la importacion.
+     */
+    public static class Progreso {
+        public final long leidos;
+        public final long importados;
+        public final long rechazados;
+        public final int enVuelo;
+        public final long bytesLeidos;
+        public final long bytesTotales;
+        public final long lineaInicial;
+        public final long elapsedNanos;
+        public final boolean terminado;
+        public final boolean cancelado;
+        /** Motivo por el que la importacion se detuvo sola, o null. */
+        public final String detenido;
+
+        Progreso(long leidos, long importados, long rechazados, int enVuelo, long bytesLeidos, long bytesTotales,
+                 long lineaInicial, long elapsedNanos, boolean terminado, boolean cancelado, String detenido) {
+            this.leidos = leidos;
+            this.importados = importados;
+            this.rechazados = rechazados;
+            this.enVuelo = enVuelo;
+            this.bytesLeidos = bytesLeidos;
+            this.bytesTotales = bytesTotales;
+            this.lineaInicial = lineaInicial;
+            this.elapsedNanos = elapsedNanos;
+            this.terminado = terminado;
+            this.cancelado = cancelado;
+            this.detenido = detenido;
+        }
+
+        /** Registros importados por segundo desde el inicio. */
+        public double porSegundo() {
+            double segundos = elapsedNanos / 1e9;
+            return segundos <= 0 ? 0.0 : importados / segundos;
+        }
+
+        public int porcentaje() {
+            return bytesTotales <= 0 ? 0 : (int) Math.min(100, bytesLeidos * 100 / bytesTotales);
+        }
+    }
+}
@@ -1,15 +1,35 @@
 package main.java.com.bookhub.ui.libros;
 
+import com.bookhub.dto.LibroRequest;
 import com.bookhub.dto.LibroResponse;
 import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.ApiExecutors;
+import com.bookhub.ui.common.BulkRunner;
+import com.bookhub.ui.common.DeltaSync;
+import com.bookhub.ui.common.DiagnosticsFrame;
+import com.bookhub.ui.common.EntityStore;
+import com.bookhub.ui.common.EntityStores;
+import com.bookhub.ui.common.JfrEvents;
+import com.bookhub.ui.common.JsonSupport;
+import com.bookhub.ui.common.KeySetRowFilter;
+import com.bookhub.ui.common.LiveUpdates;
+import com.bookhub.ui.common.NgramIndex;
+import com.bookhub.ui.common.OptimisticEdit;
+import com.bookhub.ui.common.SearchPipeline;
+import com.bookhub.ui.common.SnapshotStore;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
-import java.io.IOException;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import javax.swing.AbstractAction;
 import javax.swing.JButton;
 import javax.swing.JComponent;
@@ -20,10 +40,9 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
+import javax.swing.JViewport;
 import javax.swing.KeyStroke;
-import javax.swing.RowFilter;
-import javax.swing.SwingWorker;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.SwingUtilities;
 import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
 
@@ -33,7 +52,9 @@ import javax.swing.table.TableRowSorter;
 public class LibroListFrame extends JFrame {
 
     private final ApiClient api;
-    private final DefaultTableModel tableModel;
+    private final LibroTableModel tableModel;
+    // Solo en modo paginado (libros.paginado=true); si no, es null
+    private final LibroPageTableModel pageModel;
     private final JTable table;
     private final JTextField searchField = new JTextField();
     private final TableRowSorter<TableModel> sorter;
@@ -41,8 +62,25 @@ public class LibroListFrame extends JFrame {
     private final JButton btnEditar = new JButton("Editar (Ctrl+E)");
     private final JButton btnEliminar = new JButton("Eliminar (Del)");
     private final JButton btnRefresh = new JButton("Refrescar (F5)");
+    private final JButton btnEstado = new JButton("Cambiar disponibilidad");
+    private final JButton btnImportar = new JButton("Importar...");
+    private final JLabel statusLabel = new JLabel();
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int SEARCH_DELAY_MS = 150;
+    private static final String SNAPSHOT = "libros";
+    private static final int BULK_CONCURRENCY = ApiClient.getIntProperty("libros.masivo.concurrencia", 4);
+    private static final int SUMMARY_MAX_ERRORS = 10;
 
     private List<LibroResponse> libros = new ArrayList<>();
+    private final EntityStore<String, LibroResponse> catalogo = EntityStores.LIBROS;
+    private final NgramIndex<String> searchIndex = new NgramIndex<>();
+    private final SnapshotStore snapshots = SnapshotStore.getDefault();
+    private final DeltaSync sync = new DeltaSync("/libros");
+    // Solo se tocan desde el EDT
+    private boolean cargando;
+    private boolean eventosPendientes;
+    private final SearchPipeline<?> searchPipeline;
 
     public LibroListFrame(ApiClient api) {
         this.api = api;
@@ -50,24 +88,53 @@ public class LibroListFrame extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setPreferredSize(new Dimension(980, 560));
 
-        tableModel = new DefaultTableModel(new Object[]{"ISBN", "Titulo", "Autor", "Categoria", "Estado"}, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
-        table = new JTable(tableModel);
-        sorter = new TableRowSorter<>(tableModel);
-        table.setRowSorter(sorter);
+        tableModel = new LibroTableModel();
+        if (ApiClient.getBooleanProperty("libros.paginado", false)) {
+            // Catalogo no residente: orden y busqueda los resuelve el backend
+            pageModel = new LibroPageTableModel(api,
+                ApiClient.getIntProperty("libros.pagina.tamano", 200),
+                ApiClient.getIntProperty("libros.pagina.maxEnMemoria", 10),
+                items -> items.forEach(catalogo::put),
+                error -> JOptionPane.showMessageDialog(this, "Error cargando libros: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+            table = new JTable(pageModel);
+            sorter = null;
+            searchPipeline = new SearchPipeline<>(searchField, SEARCH_DELAY_MS, text -> text, pageModel::setQuery);
+        } else {
+            pageModel = null;
+            table = new JTable(tableModel);
+            sorter = new TableRowSorter<>(tableModel);
+            table.setRowSorter(sorter);
+            searchPipeline = new SearchPipeline<>(searchField, SEARCH_DELAY_MS, searchIndex::search, this::applyMatches);
+        }
         table.setFillsViewportHeight(true);
-        table.setAutoCreateRowSorter(true);
-        table.setSelectionMode(javax.swing.ListSelectionModel.SINGLE_SELECTION);
+        table.setSelectionMode(javax.swing.ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
 
         buildLayout();
         bindActions();
         pack();
         setLocationRelativeTo(null);
+        showSnapshot();
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                snapshots.flush(SNAPSHOT);
+            }
+        });
         loadLibros();
+        if (pageModel == null) {
+            // En modo paginado el orden y el filtro son del backend: no hay filas locales que parchear
+            LiveUpdates.getDefault().subscribe("libros", LibroResponse.class, this::onLiveDelta, this::onLiveReset);
+        }
+    }
+
+    /** Pinta el ultimo catalogo guardado en disco mientras llega el del backend. */
+    private void showSnapshot() {
+        if (pageModel != null) return;
+        SnapshotStore.Snapshot<LibroResponse> snapshot = snapshots.read(SNAPSHOT, LibroResponse.class);
+        if (snapshot != null) {
+            libros = new ArrayList<>(snapshot.items);
+            renderTable();
+        }
     }
 
     private void buildLayout() {
@@ -80,9 +147,16 @@ public class LibroListFrame extends JFrame {
         bottom.add(btnNuevo);
         bottom.add(btnEditar);
         bottom.add(btnEliminar);
+        bottom.add(btnEstado);
+        bottom.add(btnImportar);
+        bottom.add(statusLabel);
 
         add(top, BorderLayout.NORTH);
-        add(new JScrollPane(table), BorderLayout.CENTER);
+        JScrollPane scroll = new JScrollPane(table);
+        if (pageModel != null) {
+            scroll.getViewport().addChangeListener(e -> updateViewport(scroll.getViewport()));
+        }
+        add(scroll, BorderLayout.CENTER);
         add(bottom, BorderLayout.SOUTH);
     }
 
@@ -91,6 +165,20 @@ public class LibroListFrame extends JFrame {
         btnNuevo.addActionListener(e -> openForm(null));
         btnEditar.addActionListener(e -> editSelected());
         btnEliminar.addActionListener(e -> deleteSelected());
+        btnEstado.addActionListener(e -> changeAvailabilitySelected());
+        btnImportar.addActionListener(e -> new LibroImportDialog(this, api, catalogo, this::loadLibros).setVisible(true));
+
+        if (pageModel != null) {
+            table.getTableHeader().addMouseListener(new java.awt.event.MouseAdapter() {
+                @Override
+                public void mouseClicked(java.awt.event.MouseEvent e) {
+                    int column = table.columnAtPoint(e.getPoint());
+                    if (column >= 0) {
+                        pageModel.toggleSort(table.convertColumnIndexToModel(column));
+                    }
+                }
+            });
+        }
 
         table.addMouseListener(new java.awt.event.MouseAdapter() {
             @Override
@@ -101,12 +189,6 @@ public class LibroListFrame extends JFrame {
             }
         });
 
-        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
-            @Override public void insertUpdate(javax.swing.event.DocumentEvent e) { applyFilter(); }
-            @Override public void removeUpdate(javax.swing.event.DocumentEvent e) { applyFilter(); }
-            @Override public void changedUpdate(javax.swing.event.DocumentEvent e) { applyFilter(); }
-        });
-
         // Atajos de teclado para accesibilidad
         JComponent root = getRootPane();
         root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_N, KeyEvent.CTRL_DOWN_MASK), "nuevo");
@@ -132,37 +214,171 @@ public class LibroListFrame extends JFrame {
                 searchField.selectAll();
             }
         });
+        DiagnosticsFrame.install(getRootPane());
     }
 
     private void applyFilter() {
-        String text = searchField.getText();
-        if (text == null || text.isBlank()) {
+        searchPipeline.applyNow();
+    }
+
+    private void applyMatches(Set<String> matches) {
+        if (matches == null) {
             sorter.setRowFilter(null);
         } else {
-            String regex = "(?i).*" + Pattern.quote(text.trim()) + ".*";
-            sorter.setRowFilter(RowFilter.regexFilter(regex, 1, 2));
+            sorter.setRowFilter(new KeySetRowFilter<>(matches, row -> tableModel.getLibroAt(row).getIsbn()));
         }
     }
 
+    private void updateViewport(JViewport viewport) {
+        Rectangle view = viewport.getViewRect();
+        int first = table.rowAtPoint(view.getLocation());
+        int last = table.rowAtPoint(new Point(view.x, view.y + view.height - 1));
+        pageModel.setViewport(first, last < 0 ? table.getRowCount() - 1 : last);
+    }
+
     private void loadLibros() {
+        if (pageModel != null) {
+            pageModel.reload();
+            return;
+        }
+        if (sync.puedeIncremental()) {
+            loadCambios();
+            return;
+        }
+        cargando = true;
         setControlsEnabled(false);
-        new SwingWorker<List<LibroResponse>, Void>() {
-            @Override
-            protected List<LibroResponse> doInBackground() throws Exception {
-                return api.getList("/libros", LibroResponse.class);
+        List<LibroResponse> loaded = new ArrayList<>();
+        // Con la tabla vacia las filas se muestran a medida que llegan;
+        // en un refresco se espera al listado completo y se aplica como diff
+        boolean streaming = tableModel.getRowCount() == 0;
+        boolean pedirMarca = sync.debePedirMarca();
+        List<DeltaSync.Delta<LibroResponse>> marca = new ArrayList<>(1);
+
+        // La marca se pide antes del listado: lo que cambie mientras tanto llega en el proximo delta
+        CompletableFuture<Void> antes = !pedirMarca
+            ? CompletableFuture.completedFuture(null)
+            : api.getDeltaAsync("/libros", null, LibroResponse.class).handle((delta, error) -> {
+                if (error == null) marca.add(delta);
+                return null;
+            });
+
+        antes.thenCompose(v -> api.streamListAsync("/libros", LibroResponse.class, CHUNK_SIZE, chunk -> {
+            loaded.addAll(chunk);
+            if (streaming) {
+                SwingUtilities.invokeLater(() -> tableModel.appendLibros(chunk));
             }
+        })).whenCompleteAsync((total, error) -> {
+            cargando = false;
+            setControlsEnabled(true);
+            // Si la peticion de marca fallo por red se reintenta en la proxima carga
+            if (!marca.isEmpty() && (error == null || marca.get(0) == null)) {
+                sync.registrar(marca.get(0), true);
+            }
+            if (error != null) {
+                renderTable();
+                JOptionPane.showMessageDialog(this, "Error cargando libros: " + ApiExecutors.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            libros = loaded;
+            renderTable();
+            snapshots.writeAsync(SNAPSHOT, libros);
+            reloadIfEventsPending();
+        }, ApiExecutors.edt());
+    }
 
-            @Override
-            protected void done() {
-                setControlsEnabled(true);
-                try {
-                    libros = get();
-                    renderTable();
-                } catch (Exception ex) {
-                    JOptionPane.showMessageDialog(LibroListFrame.this, "Error cargando libros: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                }
+    /**
+     * Refresco incremental: pide solo lo cambiado desde la marca y lo aplica
+     * sobre la lista, el catalogo, el indice de busqueda y la tabla.
+     */
+    private void loadCambios() {
+        cargando = true;
+        setControlsEnabled(false);
+        api.getDeltaAsync("/libros", sync.getMarca(), LibroResponse.class).whenCompleteAsync((delta, error) -> {
+            cargando = false;
+            setControlsEnabled(true);
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error cargando libros: " + ApiExecutors.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
             }
-        }.execute();
+            sync.registrar(delta, false);
+            if (delta == null) {
+                // Marca caducada o backend sin soporte: carga completa
+                loadLibros();
+                return;
+            }
+            applyDelta(delta);
+            reloadIfEventsPending();
+        }, ApiExecutors.edt());
+    }
+
+    /** Cambios empujados por el canal de eventos. */
+    private void onLiveDelta(DeltaSync.Delta<LibroResponse> delta) {
+        if (cargando) {
+            // Una carga en curso podria pisar el parche; se refresca al terminar
+            eventosPendientes = true;
+            return;
+        }
+        applyDelta(delta);
+        sync.avanzar(delta.marca);
+    }
+
+    private void onLiveReset() {
+        if (cargando) {
+            eventosPendientes = true;
+        } else {
+            loadLibros();
+        }
+    }
+
+    private void reloadIfEventsPending() {
+        if (eventosPendientes) {
+            eventosPendientes = false;
+            loadLibros();
+        }
+    }
+
+    /**
+     * Muestra una escritura propia sin esperar al servidor (ver OptimisticEdit).
+     * En modo paginado solo se parchean las filas en memoria; altas y bajas
+     * mueven los limites de pagina y obligan a pedir de nuevo la vista.
+     */
+    private void applyLocal(DeltaSync.Delta<LibroResponse> delta) {
+        if (delta.isEmpty()) return;
+        if (pageModel != null) {
+            delta.eliminados.forEach(catalogo::remove);
+            boolean enPagina = delta.eliminados.isEmpty();
+            for (LibroResponse libro : delta.cambios) {
+                catalogo.put(libro);
+                enPagina &= pageModel.replace(libro);
+            }
+            if (!enPagina) pageModel.reload();
+            return;
+        }
+        if (cargando) {
+            // La carga en curso puede no incluir la escritura: se refresca al terminar
+            eventosPendientes = true;
+        }
+        applyDelta(delta);
+    }
+
+    /** Aplica un delta sobre la lista, el catalogo, el indice de busqueda y la tabla. */
+    private void applyDelta(DeltaSync.Delta<LibroResponse> delta) {
+        if (delta.isEmpty()) return;
+
+        JfrEvents.TablePopulate event = JfrEvents.beginTablePopulate();
+        libros = DeltaSync.merge(libros, delta, LibroResponse::getIsbn);
+        for (String isbn : delta.eliminados) {
+            catalogo.remove(isbn);
+            searchIndex.remove(isbn);
+        }
+        for (LibroResponse libro : delta.cambios) {
+            catalogo.put(libro);
+            searchIndex.put(libro.getIsbn(), NgramIndex.join(libro.getTitulo(), libro.getAutor()));
+        }
+        tableModel.setLibros(libros);
+        applyFilter();
+        JfrEvents.end(event, "libros", delta.cambios.size() + delta.eliminados.size());
+        snapshots.writeLater(SNAPSHOT, () -> libros);
     }
 
     private void setControlsEnabled(boolean enabled) {
@@ -170,71 +386,199 @@ public class LibroListFrame extends JFrame {
         btnEditar.setEnabled(enabled);
         btnEliminar.setEnabled(enabled);
         btnRefresh.setEnabled(enabled);
+        btnEstado.setEnabled(enabled);
         table.setEnabled(enabled);
     }
 
     private void renderTable() {
-        tableModel.setRowCount(0);
-        for (LibroResponse libro : libros) {
-            tableModel.addRow(new Object[]{
-                libro.getIsbn(),
-                libro.getTitulo(),
-                libro.getAutor(),
-                libro.getCategoria(),
-                libro.isDisponible() ? "Disponible" : "Prestado"
-            });
-        }
+        JfrEvents.TablePopulate event = JfrEvents.beginTablePopulate();
+        catalogo.replaceAll(libros);
+        tableModel.setLibros(libros);
+        searchIndex.sync(libros, LibroResponse::getIsbn, libro -> NgramIndex.join(libro.getTitulo(), libro.getAutor()));
         applyFilter();
+        JfrEvents.end(event, "libros", libros.size());
     }
 
     private void openForm(LibroResponse libro) {
-        LibroFormDialog dialog = new LibroFormDialog(this, api, libro, libros, this::loadLibros);
+        LibroFormDialog dialog = new LibroFormDialog(this, api, libro, catalogo, this::applyLocal);
         dialog.setVisible(true);
     }
 
+    private LibroResponse libroAt(int viewRow) {
+        int modelRow = table.convertRowIndexToModel(viewRow);
+        return pageModel != null ? pageModel.getLibroAt(modelRow) : tableModel.getLibroAt(modelRow);
+    }
+
     private void editSelected() {
         int row = table.getSelectedRow();
         if (row == -1) {
             JOptionPane.showMessageDialog(this, "Seleccione un libro para editar.");
             return;
         }
-        int modelRow = table.convertRowIndexToModel(row);
-        String isbn = Objects.toString(tableModel.getValueAt(modelRow, 0), null);
-        libros.stream()
-            .filter(libro -> libro.getIsbn().equals(isbn))
-            .findFirst()
-            .ifPresent(this::openForm);
+        LibroResponse visible = libroAt(row);
+        LibroResponse libro = visible != null ? catalogo.get(visible.getIsbn()) : null;
+        if (libro != null) {
+            openForm(libro);
+        }
+    }
+
+    /** Libros seleccionados en el orden de la vista; omite filas de paginas aun cargando. */
+    private List<LibroResponse> selectedLibros() {
+        List<LibroResponse> seleccion = new ArrayList<>();
+        for (int row : table.getSelectedRows()) {
+            LibroResponse visible = libroAt(row);
+            if (visible == null) continue;
+            LibroResponse libro = catalogo.get(visible.getIsbn());
+            seleccion.add(libro != null ? libro : visible);
+        }
+        return seleccion;
     }
 
     private void deleteSelected() {
-        int row = table.getSelectedRow();
-        if (row == -1) {
+        List<LibroResponse> seleccion = selectedLibros();
+        if (seleccion.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Seleccione un libro para eliminar.");
             return;
         }
-        int modelRow = table.convertRowIndexToModel(row);
-        String isbn = Objects.toString(tableModel.getValueAt(modelRow, 0), null);
-        String titulo = Objects.toString(tableModel.getValueAt(modelRow, 1), "");
 
-        int option = JOptionPane.showConfirmDialog(this,
-            "Eliminar el libro \"" + titulo + "\" (" + isbn + ")?",
-            "Confirmar eliminacion",
-            JOptionPane.YES_NO_OPTION);
+        String pregunta;
+        if (seleccion.size() == 1) {
+            LibroResponse libro = seleccion.get(0);
+            pregunta = "Eliminar el libro \"" + Objects.toString(libro.getTitulo(), "") + "\" (" + libro.getIsbn() + ")?";
+        } else {
+            pregunta = "Eliminar los " + seleccion.size() + " libros seleccionados?";
+        }
+        int option = JOptionPane.showConfirmDialog(this, pregunta, "Confirmar eliminacion", JOptionPane.YES_NO_OPTION);
         if (option != JOptionPane.YES_OPTION) {
             return;
         }
 
-        try {
-            ApiClient.ApiResponse resp = api.delete("/libros/" + isbn);
-            if (resp.isSuccess()) {
-                JOptionPane.showMessageDialog(this, "Libro eliminado.");
-                loadLibros();
+        runBulk("Eliminando", seleccion,
+            libro -> OptimisticEdit.eliminar(catalogo, libro.getIsbn()),
+            libro -> api.deleteAsync("/libros/" + libro.getIsbn()),
+            "Libro eliminado.", "Eliminados");
+    }
+
+    private void changeAvailabilitySelected() {
+        List<LibroResponse> seleccion = selectedLibros();
+        if (seleccion.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Seleccione uno o mas libros.");
+            return;
+        }
+
+        Object[] opciones = {"Disponible", "Prestado", "Cancelar"};
+        int choice = JOptionPane.showOptionDialog(this,
+            "Marcar " + seleccion.size() + " libro(s) como:",
+            "Cambiar disponibilidad",
+            JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, opciones, opciones[0]);
+        if (choice != 0 && choice != 1) {
+            return;
+        }
+        boolean disponible = choice == 0;
+
+        // Solo se envian los que realmente cambian
+        List<LibroResponse> cambios = new ArrayList<>();
+        for (LibroResponse libro : seleccion) {
+            if (libro.isDisponible() != disponible) cambios.add(libro);
+        }
+        if (cambios.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Los libros seleccionados ya tienen ese estado.");
+            return;
+        }
+
+        runBulk("Actualizando", cambios,
+            libro -> OptimisticEdit.guardar(catalogo,
+                JsonSupport.overlay(libro, toRequest(libro, disponible), LibroResponse.class)),
+            libro -> api.putAsync("/libros/" + libro.getIsbn(), toRequest(libro, disponible)),
+            "Libro actualizado.", "Actualizados");
+    }
+
+    private static LibroRequest toRequest(LibroResponse libro, boolean disponible) {
+        LibroRequest request = new LibroRequest();
+        request.setIsbn(libro.getIsbn());
+        request.setTitulo(libro.getTitulo());
+        request.setAutor(libro.getAutor());
+        request.setCategoria(libro.getCategoria());
+        request.setDisponible(disponible);
+        return request;
+    }
+
+    /**
+     * Lanza la operacion sobre todos los libros con concurrencia acotada y
+     * muestra el avance. La tabla refleja el resultado esperado desde el
+     * principio; al terminar se confirman los exitos con la respuesta del
+     * servidor y se revierten los fallos, sin volver a descargar el catalogo.
+     */
+    private void runBulk(String accion, List<LibroResponse> items,
+                         Function<LibroResponse, OptimisticEdit<String, LibroResponse>> edit,
+                         Function<LibroResponse, CompletableFuture<ApiClient.ApiResponse>> call,
+                         String unicoOk, String verbo) {
+        List<OptimisticEdit<String, LibroResponse>> edits = new ArrayList<>(items.size());
+        List<DeltaSync.Delta<LibroResponse>> pasos = new ArrayList<>(items.size());
+        for (LibroResponse libro : items) {
+            OptimisticEdit<String, LibroResponse> e = edit.apply(libro);
+            edits.add(e);
+            pasos.add(e.aplicar());
+        }
+        applyLocal(OptimisticEdit.unir(pasos));
+
+        setControlsEnabled(false);
+        statusLabel.setText(accion + " 0/" + items.size() + "...");
+
+        BulkRunner.run(items, BULK_CONCURRENCY, call,
+            done -> SwingUtilities.invokeLater(() -> statusLabel.setText(accion + " " + done + "/" + items.size() + "...")))
+            .whenCompleteAsync((result, error) -> {
+                statusLabel.setText("");
+                setControlsEnabled(true);
+                pasos.clear();
+                if (error != null) {
+                    edits.forEach(e -> pasos.add(e.revertir()));
+                    applyLocal(OptimisticEdit.unir(pasos));
+                    JOptionPane.showMessageDialog(this, "Error de comunicacion: " + ApiExecutors.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                // Los resultados llegan en el mismo orden que los elementos
+                for (int i = 0; i < edits.size(); i++) {
+                    BulkRunner.Outcome<LibroResponse> o = result.outcomes.get(i);
+                    pasos.add(o.isSuccess()
+                        ? edits.get(i).confirmar(o.response.bodyAs(LibroResponse.class))
+                        : edits.get(i).revertir());
+                }
+                applyLocal(OptimisticEdit.unir(pasos));
+                showSummary(result, unicoOk, verbo);
+            }, ApiExecutors.edt());
+    }
+
+    private void showSummary(BulkRunner.Result<LibroResponse> result, String unicoOk, String verbo) {
+        List<BulkRunner.Outcome<LibroResponse>> fallidos = result.failed();
+
+        if (result.outcomes.size() == 1) {
+            BulkRunner.Outcome<LibroResponse> unico = result.outcomes.get(0);
+            if (unico.isSuccess()) {
+                JOptionPane.showMessageDialog(this, unicoOk);
+            } else if (unico.response != null) {
+                handleApiError(unico.response);
             } else {
-                handleApiError(resp);
+                JOptionPane.showMessageDialog(this, "Error de comunicacion: " + unico.error, "Error", JOptionPane.ERROR_MESSAGE);
+            }
+            return;
+        }
+
+        StringBuilder msg = new StringBuilder()
+            .append(verbo).append(": ").append(result.outcomes.size() - fallidos.size())
+            .append(" de ").append(result.outcomes.size()).append('.');
+        if (!fallidos.isEmpty()) {
+            msg.append("\nFallidos: ").append(fallidos.size());
+            for (int i = 0; i < Math.min(SUMMARY_MAX_ERRORS, fallidos.size()); i++) {
+                BulkRunner.Outcome<LibroResponse> o = fallidos.get(i);
+                msg.append("\n  ").append(o.item.getIsbn()).append(": ").append(o.error);
+            }
+            if (fallidos.size() > SUMMARY_MAX_ERRORS) {
+                msg.append("\n  ... y ").append(fallidos.size() - SUMMARY_MAX_ERRORS).append(" mas");
             }
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(this, "Error de comunicacion: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
+        JOptionPane.showMessageDialog(this, msg.toString(), "Resumen",
+            fallidos.isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
     }
 
     private void handleApiError(ApiClient.ApiResponse resp) {
@@ -0,0 +1,288 @@
+package main.java.com.bookhub.ui.libros;
+
+import com.bookhub.dto.LibroResponse;
+import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.ApiExecutors;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de tabla paginado para catalogos muy grandes.
+ * Solo mantiene en memoria las paginas cercanas al area visible: las pide al
+ * backend con offset/limit a medida que se desplaza la vista, precarga las
+ * vecinas y descarta las lejanas. Orden y busqueda se delegan al servidor.
+ * Una pagina que falla no se vuelve a pedir en cada repintado: espera un plazo
+ * que se duplica con cada fallo (o a reload()); al vencer se repintan sus filas
+ * y, si siguen visibles, se vuelve a pedir.
+ * Todos los metodos se usan desde el EDT.
+ */
+public class LibroPageTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"ISBN", "Titulo", "Autor", "Categoria", "Estado"};
+    private static final String[] SORT_FIELDS = {"isbn", "titulo", "autor", "categoria", "disponible"};
+    private static final int PREFETCH_PAGES = 1;
+    private static final long RETRY_BASE_MS = 1000;
+    private static final long RETRY_MAX_MS = 30_000;
+
+    private final ApiClient api;
+    private final int pageSize;
+    private final int maxPages;
+    private final Consumer<List<LibroResponse>> onPageLoaded;
+    private final Consumer<Throwable> onReloadFailed;
+
+    private final LinkedHashMap<Integer, List<LibroResponse>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    private final Map<Integer, Fallo> failed = new HashMap<>();
+
+    private int total;
+    private int generation;
+    private boolean resetPending;
+    private String query = "";
+    private int sortColumn = -1;
+    private boolean ascending = true;
+
+    /**
+     * @param onReloadFailed recibe el error si falla la primera pagina tras reload();
+     *                       la tabla queda vacia hasta el siguiente reload()
+     */
+    public LibroPageTableModel(ApiClient api, int pageSize, int maxPages, Consumer<List<LibroResponse>> onPageLoaded,
+                               Consumer<Throwable> onReloadFailed) {
+        this.api = api;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.onPageLoaded = onPageLoaded;
+        this.onReloadFailed = onReloadFailed;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<LibroResponse>> eldest) {
+                return size() > LibroPageTableModel.this.maxPages;
+            }
+        };
+    }
+
+    @Override
+    public int getRowCount() {
+        return total;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        String name = COLUMNS[column];
+        if (column == sortColumn) {
+            name += ascending ? " (asc)" : " (desc)";
+        }
+        return name;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        LibroResponse libro = getLibroAt(rowIndex);
+        if (libro == null) {
+            if (columnIndex != 0) return null;
+            return failed.containsKey(rowIndex / pageSize) ? "Error al cargar" : "Cargando...";
+        }
+        return switch (columnIndex) {
+            case 0 -> libro.getIsbn();
+            case 1 -> libro.getTitulo();
+            case 2 -> libro.getAutor();
+            case 3 -> libro.getCategoria();
+            case 4 -> libro.isDisponible() ? "Disponible" : "Prestado";
+            default -> null;
+        };
+    }
+
+    /** Libro de la fila o null si su pagina aun no llego (en ese caso se solicita). */
+    public LibroResponse getLibroAt(int rowIndex) {
+        int page = rowIndex / pageSize;
+        List<LibroResponse> items = pages.get(page);
+        if (items == null) {
+            requestPage(page);
+            return null;
+        }
+        int offset = rowIndex % pageSize;
+        return offset < items.size() ? items.get(offset) : null;
+    }
+
+    /** Descarta todo y vuelve a pedir desde la primera pagina. */
+    public void reload() {
+        generation++;
+        pages.clear();
+        loading.clear();
+        failed.clear();
+        resetPending = true;
+        requestPage(0);
+    }
+
+    /**
+     * Sustituye el libro en las paginas cargadas sin volver a pedirlas.
+     *
+     * @return false si no esta en memoria (alta o pagina descartada)
+     */
+    public boolean replace(LibroResponse libro) {
+        for (Map.Entry<Integer, List<LibroResponse>> entry : pages.entrySet()) {
+            List<LibroResponse> items = entry.getValue();
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).getIsbn().equals(libro.getIsbn())) {
+                    items.set(i, libro);
+                    int row = entry.getKey() * pageSize + i;
+                    fireTableRowsUpdated(row, row);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public void setQuery(String text) {
+        String normalized = text == null ? "" : text.trim();
+        if (normalized.equals(query)) return;
+        query = normalized;
+        reload();
+    }
+
+    /** Alterna el orden por la columna (ascendente, luego descendente). */
+    public void toggleSort(int column) {
+        if (column == sortColumn) {
+            ascending = !ascending;
+        } else {
+            sortColumn = column;
+            ascending = true;
+        }
+        fireTableStructureChanged();
+        reload();
+    }
+
+    /**
+     * Informa las filas visibles: se piden sus paginas y las vecinas, y se
+     * descartan las que quedaron lejos del area visible.
+     */
+    public void setViewport(int firstRow, int lastRow) {
+        if (total == 0 || firstRow < 0) return;
+        int firstPage = Math.max(0, firstRow / pageSize - PREFETCH_PAGES);
+        int lastPage = Math.min((total - 1) / pageSize, Math.max(firstRow, lastRow) / pageSize + PREFETCH_PAGES);
+
+        for (int p = firstPage; p <= lastPage; p++) {
+            requestPage(p);
+        }
+
+        int margin = Math.max(0, (maxPages - (lastPage - firstPage + 1)) / 2);
+        Iterator<Integer> it = pages.keySet().iterator();
+        while (it.hasNext()) {
+            int p = it.next();
+            if (p < firstPage - margin || p > lastPage + margin) {
+                it.remove();
+            }
+        }
+    }
+
+    private void requestPage(int page) {
+        if (pages.containsKey(page) || loading.contains(page)) return;
+        Fallo fallo = failed.get(page);
+        if (fallo != null && System.currentTimeMillis() < fallo.retryAt) return;
+        loading.add(page);
+
+        int gen = generation;
+        api.getPageAsync(endpoint(page), LibroResponse.class)
+            .whenCompleteAsync((result, error) -> {
+                if (gen != generation) return;
+                loading.remove(page);
+                if (error != null) {
+                    onPageFailed(page, ApiExecutors.unwrap(error));
+                    return;
+                }
+                failed.remove(page);
+                onPageLoaded(page, result);
+            }, ApiExecutors.edt());
+    }
+
+    private void onPageFailed(int page, Throwable error) {
+        Fallo fallo = failed.computeIfAbsent(page, p -> new Fallo());
+        fallo.attempts++;
+        long delay = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(fallo.attempts - 1, 5));
+        fallo.retryAt = System.currentTimeMillis() + delay;
+        System.err.println("Error cargando pagina " + page + " de libros (reintento en " + delay + " ms): " + error.getMessage());
+
+        if (resetPending && page == 0) {
+            // El total anterior ya no describe la consulta actual
+            resetPending = false;
+            total = 0;
+            fireTableDataChanged();
+            if (onReloadFailed != null) {
+                onReloadFailed.accept(error);
+            }
+        } else if (page * pageSize < total) {
+            repaintPage(page);
+            int gen = generation;
+            Timer retry = new Timer((int) delay, e -> {
+                if (gen == generation && failed.containsKey(page) && page * pageSize < total) repaintPage(page);
+            });
+            retry.setRepeats(false);
+            retry.start();
+        }
+    }
+
+    private void repaintPage(int page) {
+        int first = page * pageSize;
+        fireTableRowsUpdated(first, Math.min(total - 1, first + pageSize - 1));
+    }
+
+    private void onPageLoaded(int page, ApiClient.Page<LibroResponse> result) {
+        pages.put(page, result.items);
+        if (onPageLoaded != null) {
+            onPageLoaded.accept(result.items);
+        }
+
+        int newTotal;
+        if (result.total >= 0) {
+            newTotal = result.total;
+        } else if (result.items.size() < pageSize) {
+            newTotal = page * pageSize + result.items.size(); // ultima pagina
+        } else {
+            // Sin X-Total-Count el total crece mientras las paginas lleguen llenas
+            newTotal = Math.max(resetPending ? 0 : total, (page + 1) * pageSize + 1);
+        }
+
+        if (resetPending || newTotal != total) {
+            resetPending = false;
+            total = newTotal;
+            fireTableDataChanged();
+        } else if (!result.items.isEmpty()) {
+            int first = page * pageSize;
+            fireTableRowsUpdated(first, Math.min(total - 1, first + result.items.size() - 1));
+        }
+    }
+
+    private String endpoint(int page) {
+        StringBuilder sb = new StringBuilder("/libros?offset=")
+            .append(page * pageSize)
+            .append("&limit=")
+            .append(pageSize);
+        if (sortColumn >= 0) {
+            sb.append("&sort=").append(SORT_FIELDS[sortColumn]).append(ascending ? ",asc" : ",desc");
+        }
+        if (!query.isEmpty()) {
+            sb.append("&q=").append(URLEncoder.encode(query, StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    private static final class Fallo {
+        int attempts;
+        long retryAt;
+    }
+}
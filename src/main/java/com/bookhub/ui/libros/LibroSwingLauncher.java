@@ -1,6 +1,7 @@
 package main.java.com.bookhub.ui.libros;
 
 import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.EdtWatchdog;
 import javax.swing.SwingUtilities;
 
 public class LibroSwingLauncher {
@@ -8,6 +9,7 @@ public class LibroSwingLauncher {
     public static void main(String[] args) {
         String baseApi = System.getProperty("bookhub.api", "http://localhost:8080/api");
         ApiClient api = new ApiClient(baseApi);
+        EdtWatchdog.install();
         SwingUtilities.invokeLater(() -> new LibroListFrame(api).setVisible(true));
     }
 }
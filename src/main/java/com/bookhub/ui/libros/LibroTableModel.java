@@ -0,0 +1,167 @@
+package main.java.com.bookhub.ui.libros;
+
+import com.bookhub.dto.LibroResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de tabla respaldado directamente por la lista de libros.
+ * Al recibir un nuevo listado calcula un diff por ISBN contra el anterior y
+ * emite solo eventos de filas eliminadas, insertadas y actualizadas.
+ */
+public class LibroTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"ISBN", "Titulo", "Autor", "Categoria", "Estado"};
+
+    private final List<LibroResponse> rows = new ArrayList<>();
+
+    // Rango pendiente de notificar (se agrupan filas contiguas del mismo tipo)
+    private static final int NONE = 0;
+    private static final int INSERTED = 1;
+    private static final int UPDATED = 2;
+    private int pendingType = NONE;
+    private int pendingFirst;
+    private int pendingLast;
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        LibroResponse libro = rows.get(rowIndex);
+        return switch (columnIndex) {
+            case 0 -> libro.getIsbn();
+            case 1 -> libro.getTitulo();
+            case 2 -> libro.getAutor();
+            case 3 -> libro.getCategoria();
+            case 4 -> libro.isDisponible() ? "Disponible" : "Prestado";
+            default -> null;
+        };
+    }
+
+    public LibroResponse getLibroAt(int rowIndex) {
+        return rows.get(rowIndex);
+    }
+
+    /** Agrega filas al final (carga inicial en bloques). */
+    public void appendLibros(List<LibroResponse> chunk) {
+        if (chunk.isEmpty()) return;
+        int first = rows.size();
+        rows.addAll(chunk);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    /**
+     * Sustituye el contenido por el nuevo listado notificando solo lo que cambio.
+     * Si los libros que sobreviven cambiaron de orden relativo o hay ISBN
+     * duplicados, se recurre a un unico fireTableDataChanged.
+     */
+    public void setLibros(List<LibroResponse> nuevos) {
+        Set<String> nuevasClaves = new HashSet<>(nuevos.size() * 2);
+        for (LibroResponse libro : nuevos) {
+            if (!nuevasClaves.add(key(libro))) {
+                replaceAll(nuevos);
+                return;
+            }
+        }
+
+        // 1. Eliminaciones, de abajo hacia arriba agrupando rangos contiguos
+        Set<String> supervivientes = new HashSet<>(rows.size() * 2);
+        int i = rows.size() - 1;
+        while (i >= 0) {
+            if (nuevasClaves.contains(key(rows.get(i)))) {
+                supervivientes.add(key(rows.get(i)));
+                i--;
+                continue;
+            }
+            int last = i;
+            while (i >= 0 && !nuevasClaves.contains(key(rows.get(i)))) {
+                i--;
+            }
+            rows.subList(i + 1, last + 1).clear();
+            fireTableRowsDeleted(i + 1, last);
+        }
+        if (supervivientes.size() != rows.size()) {
+            replaceAll(nuevos);
+            return;
+        }
+
+        // 2. Inserciones y actualizaciones recorriendo el nuevo orden
+        int pos = 0;
+        for (LibroResponse libro : nuevos) {
+            String key = key(libro);
+            if (pos < rows.size() && key(rows.get(pos)).equals(key)) {
+                if (!sameContent(rows.get(pos), libro)) {
+                    rows.set(pos, libro);
+                    mark(UPDATED, pos);
+                } else {
+                    rows.set(pos, libro);
+                }
+                pos++;
+            } else if (!supervivientes.contains(key)) {
+                rows.add(pos, libro);
+                mark(INSERTED, pos);
+                pos++;
+            } else {
+                flush();
+                replaceAll(nuevos);
+                return;
+            }
+        }
+        flush();
+    }
+
+    private void replaceAll(List<LibroResponse> nuevos) {
+        rows.clear();
+        rows.addAll(nuevos);
+        fireTableDataChanged();
+    }
+
+    private void mark(int type, int row) {
+        if (pendingType == type && row == pendingLast + 1) {
+            pendingLast = row;
+            return;
+        }
+        flush();
+        pendingType = type;
+        pendingFirst = row;
+        pendingLast = row;
+    }
+
+    private void flush() {
+        if (pendingType == INSERTED) {
+            fireTableRowsInserted(pendingFirst, pendingLast);
+        } else if (pendingType == UPDATED) {
+            fireTableRowsUpdated(pendingFirst, pendingLast);
+        }
+        pendingType = NONE;
+    }
+
+    private static String key(LibroResponse libro) {
+        return Objects.toString(libro.getIsbn(), "");
+    }
+
+    private static boolean sameContent(LibroResponse a, LibroResponse b) {
+        return Objects.equals(a.getIsbn(), b.getIsbn())
+            && Objects.equals(a.getTitulo(), b.getTitulo())
+            && Objects.equals(a.getAutor(), b.getAutor())
+            && Objects.equals(a.getCategoria(), b.getCategoria())
+            && a.isDisponible() == b.isDisponible();
+    }
+}
@@ -0,0 +1,79 @@
+package main.java.com.bookhub.ui.libros;
+
+import com.bookhub.dto.LibroRequest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Reglas de validacion de un libro, compartidas por el formulario y la
+ * importacion masiva.
+ */
+public final class LibroValidator {
+
+    public static final List<String> CATEGORIAS_BASE = Arrays.asList(
+        "Literatura",
+        "Tecnologia",
+        "Ciencia",
+        "Historia",
+        "Infantil",
+        "Arte",
+        "Otro"
+    );
+
+    public enum Campo { ISBN, TITULO, AUTOR, CATEGORIA }
+
+    private LibroValidator() {}
+
+    /**
+     * Valida la solicitud. Un libro nuevo no puede repetir un ISBN existente y
+     * su categoria debe ser una de las base; al editar se admite la categoria
+     * que ya tenia el libro.
+     *
+     * @return el primer error encontrado, o null si es valida
+     */
+    public static Error validate(LibroRequest request, boolean nuevo, Predicate<String> isbnExistente) {
+        if (isBlank(request.getIsbn())) {
+            return new Error(Campo.ISBN, "El ISBN es obligatorio.");
+        }
+        if (nuevo && isbnExistente.test(request.getIsbn())) {
+            return new Error(Campo.ISBN, "Ya existe un libro con el ISBN indicado.");
+        }
+        if (isBlank(request.getTitulo())) {
+            return new Error(Campo.TITULO, "El titulo es obligatorio.");
+        }
+        if (isBlank(request.getAutor())) {
+            return new Error(Campo.AUTOR, "El autor es obligatorio.");
+        }
+        if (isBlank(request.getCategoria()) || (nuevo && categoriaBase(request.getCategoria()) == null)) {
+            return new Error(Campo.CATEGORIA, "Seleccione una categoria valida.");
+        }
+        return null;
+    }
+
+    /** Nombre canonico de una categoria base (sin distinguir mayusculas), o null. */
+    public static String categoriaBase(String categoria) {
+        if (categoria == null) return null;
+        for (String base : CATEGORIAS_BASE) {
+            if (base.equalsIgnoreCase(categoria.trim())) return base;
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Primer error de validacion y el campo al que corresponde.
+     */
+    public static class Error {
+        public final Campo campo;
+        public final String mensaje;
+
+        Error(Campo campo, String mensaje) {
+            this.campo = campo;
+            this.mensaje = mensaje;
+        }
+    }
+}
@@ -2,32 +2,141 @@ package com.bookhub.ui.prestamos;
 
 import com.bookhub.dto.PrestamoRequest;
 import com.bookhub.dto.PrestamoResponse;
+import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.ApiMetrics;
+import com.bookhub.ui.common.ContentEncoding;
+import com.bookhub.ui.common.CountingInputStream;
+import com.bookhub.ui.common.DeltaSync;
+import com.bookhub.ui.common.EdtWatchdog;
+import com.bookhub.ui.common.JsonSupport;
+import com.bookhub.ui.common.Resilience;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 public class PrestamoApiClient {
 
+    // Compartida por todas las instancias: el limite de ritmo es del cliente de prestamos en conjunto
+    private static final Resilience resilience = Resilience.fromProperties("prestamos");
+    private static final boolean ACEPTAR_COMPRESION = ApiClient.getBooleanProperty("api.compresion.enabled", true);
+
     private final RestClient client;
 
     public PrestamoApiClient(String baseUrl) {
         this.client = RestClient.builder()
                 .baseUrl(baseUrl)
+                .requestInterceptor((request, body, execution) -> {
+                    // Bytes de ida y vuelta; la latencia se mide en medir()
+                    if (ACEPTAR_COMPRESION) {
+                        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, ContentEncoding.ACCEPT);
+                    }
+                    ApiMetrics.EndpointStats stats =
+                            ApiMetrics.forEndpoint(request.getMethod().name(), request.getURI().getPath());
+                    stats.recordBytes(0, body.length);
+                    stats.recordPayload(0, body.length);
+                    return new RespuestaDecodificada(execution.execute(request, body), stats);
+                })
                 .build();
     }
 
     public PrestamoResponse[] listarActivos() {
-        return client.get()
+        return medir("GET", "/api/prestamos/activos", () -> client.get()
                 .uri("/api/prestamos/activos")
                 .retrieve()
-                .body(PrestamoResponse[].class);
+                .toEntity(PrestamoResponse[].class));
     }
 
     public PrestamoResponse[] listarTodos() {
-        return client.get()
+        return medir("GET", "/api/prestamos/todos", () -> client.get()
                 .uri("/api/prestamos/todos")
                 .retrieve()
-                .body(PrestamoResponse[].class);
+                .toEntity(PrestamoResponse[].class));
+    }
+
+    /**
+     * Recorre /api/prestamos/todos prestamo a prestamo, decodificando desde el
+     * socket sin materializar el arreglo. El visitante recibe cada prestamo y
+     * los bytes leidos hasta ese momento; devolviendo false corta la descarga.
+     *
+     * @return numero de prestamos entregados
+     */
+    public long recorrerTodos(Visitante visitante) {
+        TypeAdapter<PrestamoResponse> adapter = JsonSupport.gson().getAdapter(PrestamoResponse.class);
+        // Una vez entregado algun prestamo al visitante ya no se puede reintentar
+        boolean[] entregado = {false};
+        return medir("GET", "/api/prestamos/todos", () -> client.get()
+                .uri("/api/prestamos/todos")
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw new RestClientResponseException("Error (" + response.getStatusCode().value() + ")",
+                                response.getStatusCode(), response.getStatusText(), response.getHeaders(),
+                                response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+                    }
+                    long total = 0;
+                    CountingInputStream body = new CountingInputStream(response.getBody());
+                    JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+                    if (reader.peek() != JsonToken.NULL) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            total++;
+                            entregado[0] = true;
+                            if (!visitante.visitar(adapter.read(reader), body.getCount())) break;
+                        }
+                    }
+                    return ResponseEntity.status(response.getStatusCode()).body(total);
+                }), () -> !entregado[0]);
+    }
+
+    /**
+     * Recibe cada prestamo de recorrerTodos.
+     */
+    @FunctionalInterface
+    public interface Visitante {
+        /** @return false para detener el recorrido */
+        boolean visitar(PrestamoResponse prestamo, long bytesLeidos);
+    }
+
+    /**
+     * Prestamos creados o modificados y ids eliminados desde la marca (sin
+     * marca, solo la marca actual). Ver DeltaSync.
+     *
+     * @return null si el backend no lo soporta (404/405/501) o la marca caduco (410)
+     */
+    public DeltaSync.Delta<PrestamoResponse> cambiosDesde(String desde) {
+        TypeAdapter<PrestamoResponse> adapter = JsonSupport.gson().getAdapter(PrestamoResponse.class);
+        RestClient.RequestHeadersSpec<?> spec = desde == null
+                ? client.get().uri("/api/prestamos/cambios")
+                : client.get().uri("/api/prestamos/cambios?desde={desde}", desde);
+        return medir("GET", "/api/prestamos/cambios", () -> spec
+                .exchange((request, response) -> {
+                    int code = response.getStatusCode().value();
+                    if (code == 404 || code == 405 || code == 410 || code == 501) {
+                        return ResponseEntity.status(code).<DeltaSync.Delta<PrestamoResponse>>body(null);
+                    }
+                    if (response.getStatusCode().isError()) {
+                        throw new RestClientResponseException("Error (" + code + ")",
+                                response.getStatusCode(), response.getStatusText(), response.getHeaders(),
+                                response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+                    }
+                    JsonReader reader = new JsonReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+                    return ResponseEntity.status(code).body(DeltaSync.Delta.read(reader, adapter));
+                }));
     }
 
     public PrestamoResponse crearPrestamo(String usuarioCedula, String isbn,
@@ -40,11 +149,11 @@ public class PrestamoApiClient {
                 fechaDevolucion
         );
 
-        return client.post()
+        return medir("POST", "/api/prestamos/registrar", () -> client.post()
                 .uri("/api/prestamos/registrar")
                 .body(req)
                 .retrieve()
-                .body(PrestamoResponse.class);
+                .toEntity(PrestamoResponse.class));
     }
 
     public String devolverPrestamo(String usuarioCedula, String isbn) {
@@ -56,10 +165,129 @@ public class PrestamoApiClient {
                 null
         );
 
-        return client.put()
+        // No es idempotente: si se perdio solo la respuesta, repetirla daria "ya devuelto"
+        return medir("PUT", "/api/prestamos/devolver", () -> client.put()
                 .uri("/api/prestamos/devolver")
                 .body(req)
                 .retrieve()
-                .body(String.class);
+                .toEntity(String.class), () -> false);
+    }
+
+    /**
+     * Ejecuta la llamada a traves de la capa de resiliencia (limitador,
+     * circuito y reintentos de GET/PUT) y devuelve el cuerpo. Los errores
+     * conservan los tipos de Spring; los rechazos propios de la capa llegan
+     * como ResourceAccessException, igual que un fallo de conexion.
+     */
+    private <T> T medir(String method, String uri, Supplier<ResponseEntity<T>> call) {
+        return medir(method, uri, call, () -> true);
+    }
+
+    /** @param retryAllowed false si repetir la llamada duplicaria efectos ya visibles */
+    private <T> T medir(String method, String uri, Supplier<ResponseEntity<T>> call, BooleanSupplier retryAllowed) {
+        // Antes del circuito: en modo estricto es un error de programacion, no un fallo del backend
+        EdtWatchdog.checkNetworkCall(method + " " + uri);
+        try {
+            return resilience.execute(method, uri, () -> medirIntento(method, uri, call), body -> 200, retryAllowed);
+        } catch (IOException e) {
+            if (e.getCause() instanceof RestClientException cause) {
+                throw cause;
+            }
+            throw new ResourceAccessException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Un intento: registra en ApiMetrics la latencia total (incluida la
+     * decodificacion del cuerpo) y el codigo de estado.
+     */
+    private <T> T medirIntento(String method, String uri, Supplier<ResponseEntity<T>> call) throws IOException {
+        ApiMetrics.EndpointStats stats = ApiMetrics.forEndpoint(method, uri);
+        long start = System.nanoTime();
+        int status = ApiMetrics.IO_ERROR;
+        try {
+            ResponseEntity<T> entity = call.get();
+            status = entity.getStatusCode().value();
+            return entity.getBody();
+        } catch (RestClientResponseException e) {
+            status = e.getStatusCode().value();
+            // El codigo decide si el fallo es del backend (cuenta para el circuito) o del cliente
+            Resilience.HttpStatusException wrapped = new Resilience.HttpStatusException(status, e.getMessage());
+            wrapped.initCause(e);
+            throw wrapped;
+        } catch (ResourceAccessException e) {
+            throw new IOException(e.getMessage(), e);
+        } catch (RestClientException e) {
+            // Cuerpo que no se pudo convertir: cuenta como fallo del backend, no del cliente
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            stats.recordCall(System.nanoTime() - start, status);
+        }
+    }
+
+    /**
+     * Descomprime el cuerpo segun Content-Encoding mientras se lee y, al
+     * cerrarse, registra los bytes recibidos por la red y los descomprimidos.
+     */
+    private static final class RespuestaDecodificada implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final ApiMetrics.EndpointStats stats;
+        private final String encoding;
+        private final HttpHeaders headers;
+        private CountingInputStream wire;
+        private CountingInputStream body;
+
+        RespuestaDecodificada(ClientHttpResponse delegate, ApiMetrics.EndpointStats stats) {
+            this.delegate = delegate;
+            this.stats = stats;
+            this.encoding = delegate.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            if (encoding == null) {
+                this.headers = delegate.getHeaders();
+            } else {
+                // Los convertidores ven el cuerpo ya descomprimido
+                this.headers = new HttpHeaders();
+                this.headers.putAll(delegate.getHeaders());
+                this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+                this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+            }
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                wire = new CountingInputStream(delegate.getBody());
+                body = new CountingInputStream(ContentEncoding.decode(wire, encoding));
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public void close() {
+            if (body != null) {
+                stats.recordBytes(wire.getCount(), 0);
+                stats.recordPayload(body.getCount(), 0);
+                try {
+                    body.close();
+                } catch (IOException ignored) {
+                    // se cierra igualmente la respuesta
+                }
+            }
+            delegate.close();
+        }
     }
 }
@@ -1,10 +1,12 @@
 package com.bookhub.cliente.prestamos;
 
+import com.bookhub.ui.common.EdtWatchdog;
 import javax.swing.*;
 
 public class PrestamoClientApp {
 
     public static void main(String[] args) {
+        EdtWatchdog.install();
         SwingUtilities.invokeLater(() -> {
 
             try {
@@ -0,0 +1,156 @@
+package com.bookhub.ui.prestamos;
+
+import com.bookhub.dto.PrestamoResponse;
+import com.bookhub.ui.common.ApiExecutors;
+import com.bookhub.ui.common.JsonSupport;
+import com.google.gson.Gson;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Exporta el historial completo de prestamos a CSV o JSON Lines leyendo
+ * /api/prestamos/todos en streaming: cada prestamo se escribe en cuanto se
+ * decodifica, asi que la memoria no crece con el tamano del historial.
+ * Se escribe en un temporal que solo reemplaza al destino si termina bien.
+ */
+public class PrestamoExporter {
+
+    private static final String CABECERA_CSV = "id,usuarioCedula,libroIsbn,fechaPrestamo,fechaDevolucion,estado";
+    private static final long AVISO_CADA_NANOS = 200_000_000L;
+
+    private final PrestamoApiClient apiClient;
+    private volatile boolean cancelado;
+
+    public PrestamoExporter(PrestamoApiClient apiClient) {
+        this.apiClient = apiClient;
+    }
+
+    public void cancel() {
+        cancelado = true;
+    }
+
+    /**
+     * Inicia la exportacion en segundo plano. El formato sale de la extension
+     * (.csv; cualquier otra produce JSON Lines).
+     *
+     * @param onProgress recibe el avance periodicamente, fuera del EDT
+     * @return avance final; con cancelado=true el destino no se modifica
+     */
+    public CompletableFuture<Progreso> export(Path destino, Consumer<Progreso> onProgress) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return exportar(destino, onProgress);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, ApiExecutors.background());
+    }
+
+    private Progreso exportar(Path destino, Consumer<Progreso> onProgress) throws IOException {
+        boolean csv = destino.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        Gson gson = JsonSupport.gson();
+        Path tmp = destino.resolveSibling(destino.getFileName() + ".tmp");
+        long inicio = System.nanoTime();
+        long[] ultimoAviso = {inicio};
+        long[] escritos = {0};
+        long[] bytes = {0};
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            if (csv) {
+                writer.write(CABECERA_CSV);
+                writer.newLine();
+            }
+            try {
+                apiClient.recorrerTodos((prestamo, bytesLeidos) -> {
+                    if (cancelado) return false;
+                    try {
+                        if (csv) {
+                            writeCsv(writer, prestamo);
+                        } else {
+                            gson.toJson(prestamo, PrestamoResponse.class, writer);
+                            writer.newLine();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    escritos[0]++;
+                    bytes[0] = bytesLeidos;
+
+                    long ahora = System.nanoTime();
+                    if (ahora - ultimoAviso[0] > AVISO_CADA_NANOS) {
+                        ultimoAviso[0] = ahora;
+                        onProgress.accept(new Progreso(escritos[0], bytes[0], ahora - inicio, false));
+                    }
+                    return true;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        if (cancelado) {
+            Files.deleteIfExists(tmp);
+        } else {
+            Files.move(tmp, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return new Progreso(escritos[0], bytes[0], System.nanoTime() - inicio, cancelado);
+    }
+
+    private static void writeCsv(Writer writer, PrestamoResponse p) throws IOException {
+        writer.write(Objects.toString(p.getId(), ""));
+        writer.write(',');
+        writer.write(csv(p.getUsuarioCedula()));
+        writer.write(',');
+        writer.write(csv(p.getLibroIsbn()));
+        writer.write(',');
+        writer.write(Objects.toString(p.getFechaPrestamo(), ""));
+        writer.write(',');
+        writer.write(Objects.toString(p.getFechaDevolucion(), ""));
+        writer.write(',');
+        writer.write(csv(Objects.toString(p.getEstado(), "")));
+        writer.write(System.lineSeparator());
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Avance de la exportacion.
+     */
+    public static class Progreso {
+        public final long prestamos;
+        public final long bytesLeidos;
+        public final long elapsedNanos;
+        public final boolean cancelado;
+
+        Progreso(long prestamos, long bytesLeidos, long elapsedNanos, boolean cancelado) {
+            this.prestamos = prestamos;
+            this.bytesLeidos = bytesLeidos;
+            this.elapsedNanos = elapsedNanos;
+            this.cancelado = cancelado;
+        }
+
+        public double porSegundo() {
+            double segundos = elapsedNanos / 1e9;
+            return segundos <= 0 ? 0.0 : prestamos / segundos;
+        }
+    }
+}
@@ -1,29 +1,67 @@
 package com.bookhub.cliente.prestamos;
 
 import com.bookhub.dto.PrestamoResponse;
+import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.ApiExecutors;
+import com.bookhub.ui.common.DeltaSync;
+import com.bookhub.ui.common.DiagnosticsFrame;
+import com.bookhub.ui.common.EntityStore;
+import com.bookhub.ui.common.EntityStores;
+import com.bookhub.ui.common.JfrEvents;
+import com.bookhub.ui.common.JsonSupport;
+import com.bookhub.ui.common.LiveUpdates;
+import com.bookhub.ui.common.OptimisticEdit;
+import com.bookhub.ui.common.SnapshotStore;
+import com.google.gson.JsonParseException;
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JTabbedPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
 import javax.swing.table.DefaultTableModel;
 
 public class PrestamoFrame extends JFrame {
 
+    private static final Object[] COLUMNAS = {"ID", "Cedula", "ISBN", "F. Prestamo", "F. Devolucion", "Estado"};
+
+    // Por defecto los activos se derivan de /todos; con true se piden a /activos en paralelo
+    private static final boolean FILTRO_SERVIDOR = ApiClient.getBooleanProperty("prestamos.activos.filtroServidor", false);
+    private static final String ESTADO_ACTIVO = ApiClient.getProperty("prestamos.estado.activo", "ACTIVO");
+    // Estado que se muestra al devolver, hasta que el servidor envie el prestamo actualizado
+    private static final String ESTADO_DEVUELTO = ApiClient.getProperty("prestamos.estado.devuelto", "DEVUELTO");
+
     private final PrestamoApiClient apiClient;
+    private final EntityStore<String, PrestamoResponse> prestamos = EntityStores.PRESTAMOS;
+    private final SnapshotStore snapshots = SnapshotStore.getDefault();
+    private final DeltaSync sync = new DeltaSync("/api/prestamos");
 
     private JTextField txtUsuarioCedula;
     private JTextField txtLibroIsbn;
@@ -31,15 +69,43 @@ public class PrestamoFrame extends JFrame {
 
     private JTable tablaActivos;
     private JTable tablaHistorial;
+    private JButton btnCrear;
+    private JButton btnDevolver;
 
     private final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
     private List<PrestamoResponse> cacheActivos = Collections.emptyList();
     private List<PrestamoResponse> cacheHistorial = Collections.emptyList();
 
+    // Solo se toca desde el EDT: descarta cargas superadas por otra mas reciente
+    private int cargaGeneracion;
+    private boolean cargando;
+    private boolean eventosPendientes;
+
     public PrestamoFrame() {
         this.apiClient = new PrestamoApiClient("http://localhost:8080");
         initComponents();
+        mostrarInstantanea();
         cargarPrestamos();
+
+        Runnable cancelarEventos = LiveUpdates.getDefault().subscribe("prestamos", PrestamoResponse.class,
+                this::onEventoPrestamos, this::onReinicioEventos);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                cancelarEventos.run();
+                snapshots.flush("prestamos");
+            }
+        });
+    }
+
+    /** Pinta los ultimos prestamos guardados en disco mientras responde el backend. */
+    private void mostrarInstantanea() {
+        SnapshotStore.Snapshot<PrestamoResponse> snapshot = snapshots.read("prestamos", PrestamoResponse.class);
+        if (snapshot != null) {
+            CargaPrestamos carga = new CargaPrestamos(snapshot.items, filtrarActivos(snapshot.items));
+            cargarActivos(carga);
+            cargarHistorial(carga);
+        }
     }
 
     private void initComponents() {
@@ -70,19 +136,11 @@ public class PrestamoFrame extends JFrame {
 
         JTabbedPane tabs = new JTabbedPane();
 
-        tablaActivos = new JTable(
-                new DefaultTableModel(
-                        new Object[]{"ID", "Cedula", "ISBN", "F. Prestamo", "F. Devolucion", "Estado"}, 0
-                )
-        );
+        tablaActivos = new JTable(new DefaultTableModel(COLUMNAS, 0));
         JScrollPane scrollActivos = new JScrollPane(tablaActivos);
         tabs.addTab("Prestamos Activos", scrollActivos);
 
-        tablaHistorial = new JTable(
-                new DefaultTableModel(
-                        new Object[]{"ID", "Cedula", "ISBN", "F. Prestamo", "F. Devolucion", "Estado"}, 0
-                )
-        );
+        tablaHistorial = new JTable(new DefaultTableModel(COLUMNAS, 0));
         JScrollPane scrollHistorial = new JScrollPane(tablaHistorial);
         tabs.addTab("Historial", scrollHistorial);
 
@@ -90,14 +148,18 @@ public class PrestamoFrame extends JFrame {
 
         JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.RIGHT));
 
-        JButton btnCrear = new JButton("Crear prestamo");
+        btnCrear = new JButton("Crear prestamo");
         btnCrear.addActionListener(e -> onCrearPrestamo());
         panelBotones.add(btnCrear);
 
-        JButton btnDevolver = new JButton("Devolver prestamo");
+        btnDevolver = new JButton("Devolver prestamo");
         btnDevolver.addActionListener(e -> onDevolverPrestamo());
         panelBotones.add(btnDevolver);
 
+        JButton btnExportar = new JButton("Exportar historial...");
+        btnExportar.addActionListener(e -> onExportarHistorial());
+        panelBotones.add(btnExportar);
+
         JButton btnRefrescar = new JButton("Refrescar");
         btnRefrescar.addActionListener(e -> cargarPrestamos());
         panelBotones.add(btnRefrescar);
@@ -107,6 +169,8 @@ public class PrestamoFrame extends JFrame {
         panelBotones.add(btnCerrar);
 
         add(panelBotones, BorderLayout.SOUTH);
+
+        DiagnosticsFrame.install(getRootPane());
     }
 
     private void onCrearPrestamo() {
@@ -143,13 +207,22 @@ public class PrestamoFrame extends JFrame {
             return;
         }
 
-        try {
-            apiClient.crearPrestamo(usuarioCedula, isbn, hoy, fechaDev);
-            mostrarInfo("Prestamo creado correctamente.");
-            cargarPrestamos();
-        } catch (Exception ex) {
-            mostrarError("Error creando prestamo: " + ex.getMessage());
-        }
+        // El id lo asigna el servidor: la fila se agrega con su respuesta, sin recargar las tablas
+        btnCrear.setEnabled(false);
+        CompletableFuture.supplyAsync(() -> apiClient.crearPrestamo(usuarioCedula, isbn, hoy, fechaDev), ApiExecutors.background())
+                .whenCompleteAsync((creado, error) -> {
+                    btnCrear.setEnabled(true);
+                    if (error != null) {
+                        mostrarError("Error creando prestamo: " + ApiExecutors.unwrap(error).getMessage());
+                        return;
+                    }
+                    if (creado != null && creado.getId() != null) {
+                        aplicarLocal(new DeltaSync.Delta<>(null, List.of(creado), List.of()));
+                    } else {
+                        cargarPrestamos();
+                    }
+                    mostrarInfo("Prestamo creado correctamente.");
+                }, ApiExecutors.edt());
     }
 
     private void onDevolverPrestamo() {
@@ -174,62 +247,305 @@ public class PrestamoFrame extends JFrame {
             return;
         }
 
+        // Sale de activos al instante; si el servidor lo rechaza vuelve a su sitio
+        OptimisticEdit<String, PrestamoResponse> edit = OptimisticEdit.guardar(prestamos,
+                JsonSupport.overlay(seleccionado, Map.of("estado", ESTADO_DEVUELTO), PrestamoResponse.class));
+        aplicarLocal(edit.aplicar());
+        btnDevolver.setEnabled(false);
+
+        CompletableFuture.supplyAsync(() -> apiClient.devolverPrestamo(usuarioCedula, isbn), ApiExecutors.background())
+                .whenCompleteAsync((respuesta, error) -> {
+                    btnDevolver.setEnabled(true);
+                    if (error != null) {
+                        aplicarLocal(edit.revertir());
+                        mostrarError("Error devolviendo prestamo: " + ApiExecutors.unwrap(error).getMessage());
+                        return;
+                    }
+                    aplicarLocal(edit.confirmar(prestamoDe(respuesta)));
+                    mostrarInfo("Prestamo devuelto correctamente.");
+                }, ApiExecutors.edt());
+    }
+
+    /**
+     * El prestamo actualizado si la respuesta lo incluye; si no (texto libre),
+     * null y se conserva el estado local hasta el proximo delta o evento.
+     */
+    private static PrestamoResponse prestamoDe(String respuesta) {
+        if (respuesta == null || !respuesta.trim().startsWith("{")) return null;
         try {
-            apiClient.devolverPrestamo(usuarioCedula, isbn);
-            mostrarInfo("Prestamo devuelto correctamente.");
-            cargarPrestamos();
-        } catch (Exception ex) {
-            mostrarError("Error devolviendo prestamo: " + ex.getMessage());
+            PrestamoResponse p = JsonSupport.gson().fromJson(respuesta, PrestamoResponse.class);
+            return p != null && p.getId() != null ? p : null;
+        } catch (JsonParseException e) {
+            return null;
         }
     }
 
     private void cargarPrestamos() {
-        cargarActivos();
-        cargarHistorial();
+        int generacion = ++cargaGeneracion;
+        cargando = true;
+        if (sync.puedeIncremental()) {
+            cargarCambios(generacion);
+            return;
+        }
+
+        // La marca se pide antes del listado: lo que cambie mientras tanto llega en el proximo delta
+        boolean pedirMarca = sync.debePedirMarca();
+        CompletableFuture<DeltaSync.Delta<PrestamoResponse>> marca = pedirMarca
+                ? CompletableFuture.supplyAsync(() -> apiClient.cambiosDesde(null), ApiExecutors.background())
+                : CompletableFuture.completedFuture(null);
+
+        CompletableFuture<List<PrestamoResponse>> todos = marca.handle((d, e) -> null).thenApplyAsync(
+                v -> Arrays.asList(apiClient.listarTodos()), ApiExecutors.background());
+
+        CompletableFuture<List<PrestamoResponse>> activos = FILTRO_SERVIDOR
+                ? CompletableFuture.supplyAsync(() -> Arrays.asList(apiClient.listarActivos()), ApiExecutors.background())
+                : todos.thenApply(this::filtrarActivos);
+
+        // Las filas se construyen fuera del EDT; en el EDT solo se asignan a los modelos
+        todos.thenCombine(activos, CargaPrestamos::new)
+                .whenCompleteAsync((carga, error) -> {
+                    if (generacion != cargaGeneracion) return;
+                    cargando = false;
+                    // Si la peticion de marca fallo por red se reintenta en la proxima carga
+                    if (pedirMarca && !marca.isCompletedExceptionally()) {
+                        DeltaSync.Delta<PrestamoResponse> delta = marca.join();
+                        if (error == null || delta == null) {
+                            sync.registrar(delta, true);
+                        }
+                    }
+                    if (error != null) {
+                        mostrarError("No se pudieron cargar los prestamos.");
+                        return;
+                    }
+                    cargarActivos(carga);
+                    cargarHistorial(carga);
+                    snapshots.writeAsync("prestamos", carga.historial);
+                    recargarSiHayEventos();
+                }, ApiExecutors.edt());
     }
 
-    private void cargarActivos() {
-        try {
-            PrestamoResponse[] activos = apiClient.listarActivos();
-            DefaultTableModel model = (DefaultTableModel) tablaActivos.getModel();
-            model.setRowCount(0);
-            cacheActivos = Arrays.asList(activos);
-
-            for (PrestamoResponse p : activos) {
-                model.addRow(new Object[]{
-                        p.getId(),
-                        p.getUsuarioCedula(),
-                        p.getLibroIsbn(),
-                        p.getFechaPrestamo(),
-                        p.getFechaDevolucion(),
-                        p.getEstado()
-                });
-            }
-        } catch (Exception ex) {
-            mostrarError("No se pudieron cargar los prestamos.");
+    /**
+     * Refresco incremental: solo se descargan los prestamos cambiados desde la
+     * marca y se aplican fila a fila sobre ambas tablas. Los activos se derivan
+     * del estado de cada prestamo aunque filtroServidor este activo.
+     */
+    private void cargarCambios(int generacion) {
+        cargando = true;
+        String desde = sync.getMarca();
+        CompletableFuture.supplyAsync(() -> apiClient.cambiosDesde(desde), ApiExecutors.background())
+                .whenCompleteAsync((delta, error) -> {
+                    if (generacion != cargaGeneracion) return;
+                    cargando = false;
+                    if (error != null) {
+                        mostrarError("No se pudieron cargar los prestamos.");
+                        return;
+                    }
+                    sync.registrar(delta, false);
+                    if (delta == null) {
+                        // Marca caducada o backend sin soporte: carga completa
+                        cargarPrestamos();
+                        return;
+                    }
+                    aplicarDelta(delta);
+                    recargarSiHayEventos();
+                }, ApiExecutors.edt());
+    }
+
+    /** Cambios empujados por el canal de eventos. */
+    private void onEventoPrestamos(DeltaSync.Delta<PrestamoResponse> delta) {
+        if (cargando) {
+            // Una carga en curso podria pisar el parche; se refresca al terminar
+            eventosPendientes = true;
+            return;
         }
+        aplicarDelta(delta);
+        sync.avanzar(delta.marca);
     }
 
-    private void cargarHistorial() {
-        try {
-            PrestamoResponse[] todos = apiClient.listarTodos();
-            DefaultTableModel model = (DefaultTableModel) tablaHistorial.getModel();
-            model.setRowCount(0);
-            cacheHistorial = Arrays.asList(todos);
-
-            for (PrestamoResponse p : todos) {
-                model.addRow(new Object[]{
-                        p.getId(),
-                        p.getUsuarioCedula(),
-                        p.getLibroIsbn(),
-                        p.getFechaPrestamo(),
-                        p.getFechaDevolucion(),
-                        p.getEstado()
-                });
+    private void onReinicioEventos() {
+        if (cargando) {
+            eventosPendientes = true;
+        } else {
+            cargarPrestamos();
+        }
+    }
+
+    private void recargarSiHayEventos() {
+        if (eventosPendientes) {
+            eventosPendientes = false;
+            cargarPrestamos();
+        }
+    }
+
+    /**
+     * Muestra una escritura propia sin esperar al servidor (ver OptimisticEdit).
+     * Si hay una carga en curso, puede no incluirla: se refresca al terminar.
+     */
+    private void aplicarLocal(DeltaSync.Delta<PrestamoResponse> delta) {
+        if (cargando) {
+            eventosPendientes = true;
+        }
+        aplicarDelta(delta);
+    }
+
+    private void aplicarDelta(DeltaSync.Delta<PrestamoResponse> delta) {
+        if (delta.isEmpty()) return;
+
+        JfrEvents.TablePopulate event = JfrEvents.beginTablePopulate();
+        cacheHistorial = aplicarCambios((DefaultTableModel) tablaHistorial.getModel(), cacheHistorial, delta, p -> true);
+        cacheActivos = aplicarCambios((DefaultTableModel) tablaActivos.getModel(), cacheActivos, delta, this::esActivo);
+        for (String id : delta.eliminados) {
+            prestamos.remove(id);
+        }
+        delta.cambios.forEach(prestamos::put);
+        JfrEvents.end(event, "prestamos-cambios", delta.cambios.size() + delta.eliminados.size());
+        snapshots.writeLater("prestamos", () -> cacheHistorial);
+    }
+
+    /**
+     * Aplica el delta sobre un modelo y su lista paralela manteniendolos
+     * alineados fila a fila: los modificados se actualizan en su sitio, los que
+     * se eliminan o dejan de cumplir el filtro se quitan y las altas van al final.
+     */
+    private static List<PrestamoResponse> aplicarCambios(DefaultTableModel model, List<PrestamoResponse> actuales,
+                                                         DeltaSync.Delta<PrestamoResponse> delta,
+                                                         Predicate<PrestamoResponse> incluir) {
+        Map<String, PrestamoResponse> cambios = new LinkedHashMap<>(delta.cambios.size() * 2);
+        for (PrestamoResponse p : delta.cambios) {
+            cambios.put(String.valueOf(p.getId()), p);
+        }
+        Set<String> eliminados = new HashSet<>(delta.eliminados);
+        List<PrestamoResponse> lista = new ArrayList<>(actuales);
+
+        // De abajo hacia arriba para que las bajas no desplacen las filas pendientes
+        for (int i = lista.size() - 1; i >= 0; i--) {
+            String id = String.valueOf(lista.get(i).getId());
+            PrestamoResponse nuevo = cambios.remove(id);
+            if (eliminados.contains(id) || (nuevo != null && !incluir.test(nuevo))) {
+                lista.remove(i);
+                model.removeRow(i);
+            } else if (nuevo != null) {
+                lista.set(i, nuevo);
+                Object[] fila = toRows(List.of(nuevo))[0];
+                for (int col = 0; col < fila.length; col++) {
+                    model.setValueAt(fila[col], i, col);
+                }
+            }
+        }
+        for (PrestamoResponse p : cambios.values()) {
+            if (incluir.test(p) && !eliminados.contains(String.valueOf(p.getId()))) {
+                lista.add(p);
+                model.addRow(toRows(List.of(p))[0]);
             }
-        } catch (Exception ex) {
-            mostrarError("No se pudo cargar el historial.");
         }
+        return lista;
+    }
+
+    private boolean esActivo(PrestamoResponse p) {
+        return ESTADO_ACTIVO.equalsIgnoreCase(String.valueOf(p.getEstado()));
+    }
+
+    private List<PrestamoResponse> filtrarActivos(List<PrestamoResponse> todos) {
+        return todos.stream()
+                .filter(this::esActivo)
+                .collect(Collectors.toList());
+    }
+
+    private void cargarActivos(CargaPrestamos carga) {
+        JfrEvents.TablePopulate event = JfrEvents.beginTablePopulate();
+        DefaultTableModel model = (DefaultTableModel) tablaActivos.getModel();
+        cacheActivos = carga.activos;
+        model.setDataVector(carga.filasActivos, COLUMNAS);
+        JfrEvents.end(event, "prestamos-activos", carga.filasActivos.length);
+    }
+
+    private void cargarHistorial(CargaPrestamos carga) {
+        JfrEvents.TablePopulate event = JfrEvents.beginTablePopulate();
+        DefaultTableModel model = (DefaultTableModel) tablaHistorial.getModel();
+        cacheHistorial = carga.historial;
+        prestamos.replaceAll(carga.historial);
+        model.setDataVector(carga.filasHistorial, COLUMNAS);
+        JfrEvents.end(event, "prestamos-historial", carga.filasHistorial.length);
+    }
+
+    private static Object[][] toRows(List<PrestamoResponse> prestamos) {
+        Object[][] rows = new Object[prestamos.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            PrestamoResponse p = prestamos.get(i);
+            rows[i] = new Object[]{
+                    p.getId(),
+                    p.getUsuarioCedula(),
+                    p.getLibroIsbn(),
+                    p.getFechaPrestamo(),
+                    p.getFechaDevolucion(),
+                    p.getEstado()
+            };
+        }
+        return rows;
+    }
+
+    /**
+     * Resultado de una carga: listas y filas ya construidas en el hilo de fondo.
+     */
+    private static class CargaPrestamos {
+        final List<PrestamoResponse> historial;
+        final List<PrestamoResponse> activos;
+        final Object[][] filasHistorial;
+        final Object[][] filasActivos;
+
+        CargaPrestamos(List<PrestamoResponse> historial, List<PrestamoResponse> activos) {
+            this.historial = historial;
+            this.activos = activos;
+            this.filasHistorial = toRows(historial);
+            this.filasActivos = toRows(activos);
+        }
+    }
+
+    /**
+     * Descarga el historial directamente a un archivo CSV o JSON Lines, sin
+     * pasar por la tabla, con avance y opcion de cancelar.
+     */
+    private void onExportarHistorial() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("prestamos.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File destino = chooser.getSelectedFile();
+
+        PrestamoExporter exporter = new PrestamoExporter(apiClient);
+        JDialog dialogo = new JDialog(this, "Exportando historial", false);
+        JLabel lblAvance = new JLabel("Conectando...");
+        JProgressBar barra = new JProgressBar();
+        barra.setIndeterminate(true);
+        JButton btnCancelar = new JButton("Cancelar");
+        btnCancelar.addActionListener(e -> {
+            btnCancelar.setEnabled(false);
+            exporter.cancel();
+        });
+
+        JPanel contenido = new JPanel(new BorderLayout(8, 8));
+        contenido.add(lblAvance, BorderLayout.NORTH);
+        contenido.add(barra, BorderLayout.CENTER);
+        contenido.add(btnCancelar, BorderLayout.SOUTH);
+        dialogo.add(contenido);
+        dialogo.setSize(380, 130);
+        dialogo.setLocationRelativeTo(this);
+        dialogo.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        dialogo.setVisible(true);
+
+        exporter.export(destino.toPath(), p -> SwingUtilities.invokeLater(() ->
+                        lblAvance.setText(String.format("%,d prestamos (%.1f MB, %.0f/s)",
+                                p.prestamos, p.bytesLeidos / (1024.0 * 1024.0), p.porSegundo()))))
+                .whenCompleteAsync((fin, error) -> {
+                    dialogo.dispose();
+                    if (error != null) {
+                        mostrarError("Error exportando historial: " + ApiExecutors.unwrap(error).getMessage());
+                    } else if (!fin.cancelado) {
+                        JOptionPane.showMessageDialog(this,
+                                String.format("Exportados %,d prestamos a %s", fin.prestamos, destino.getName()));
+                    }
+                }, ApiExecutors.edt());
     }
 
     private void mostrarError(String mensaje) {
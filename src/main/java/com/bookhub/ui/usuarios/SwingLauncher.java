@@ -1,12 +1,14 @@
 package main.java.com.bookhub.ui.usuarios;
 
 import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.EdtWatchdog;
 import javax.swing.SwingUtilities;
 
 public class SwingLauncher {
     public static void main(String[] args) {
         String baseApi = "http://localhost:8080/api";
         ApiClient api = new ApiClient(baseApi);
+        EdtWatchdog.install();
         SwingUtilities.invokeLater(() -> {
             UsuarioListFrame frame = new UsuarioListFrame(api);
             frame.setVisible(true);
@@ -2,11 +2,16 @@ package main.java.com.bookhub.ui.usuarios;
 
 import com.bookhub.entity.Usuario;
 import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.ApiExecutors;
+import com.bookhub.ui.common.DeltaSync;
+import com.bookhub.ui.common.EntityStore;
+import com.bookhub.ui.common.OptimisticEdit;
 import com.google.gson.Gson;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class UsuarioFormDialog extends JDialog {
 
@@ -14,16 +19,27 @@ public class UsuarioFormDialog extends JDialog {
     private final JTextField emailField = new JTextField(30);
     private final JTextField telefonoField = new JTextField(20);
 
+    private final JButton btnSave = new JButton("Guardar");
+
     private final ApiClient api;
     private final Usuario editing;
-    private final Runnable onSaved;
+    private final Consumer<DeltaSync.Delta<Usuario>> vista;
+    private final Runnable recargar;
+    private final EntityStore<Integer, Usuario> directorio;
     private final Gson gson = new Gson();
 
-    public UsuarioFormDialog(Frame owner, ApiClient api, Usuario usuario, Runnable onSaved) {
+    /**
+     * @param vista    aplica los cambios locales sobre la lista (ver OptimisticEdit)
+     * @param recargar refresco de la lista si un alta no devuelve el usuario creado
+     */
+    public UsuarioFormDialog(Frame owner, ApiClient api, Usuario usuario, EntityStore<Integer, Usuario> directorio,
+                             Consumer<DeltaSync.Delta<Usuario>> vista, Runnable recargar) {
         super(owner, true);
         this.api = api;
         this.editing = usuario;
-        this.onSaved = onSaved;
+        this.vista = vista;
+        this.recargar = recargar;
+        this.directorio = directorio;
         setTitle(usuario == null ? "Crear Usuario" : "Editar Usuario");
         init();
         if (usuario != null) populate(usuario);
@@ -40,7 +56,6 @@ public class UsuarioFormDialog extends JDialog {
         add(center, BorderLayout.CENTER);
 
         JPanel bottom = new JPanel();
-        JButton btnSave = new JButton("Guardar");
         JButton btnCancel = new JButton("Cancelar");
         bottom.add(btnSave); bottom.add(btnCancel);
         add(bottom, BorderLayout.SOUTH);
@@ -86,19 +101,33 @@ public class UsuarioFormDialog extends JDialog {
         u.setEmail(email);
         u.setTelefono(telefono);
 
-        try {
-            ApiClient.ApiResponse resp;
-            if (editing == null) {
-                resp = api.post("/usuarios", u);
-            } else {
-                resp = api.put("/usuarios/" + u.getId(), u);
+        // Una edicion se ve al instante; un alta aparece al responder (el id lo asigna el servidor)
+        OptimisticEdit<Integer, Usuario> edit = OptimisticEdit.guardar(directorio, u);
+        vista.accept(edit.aplicar());
+        btnSave.setEnabled(false);
+
+        CompletableFuture<ApiClient.ApiResponse> call = editing == null
+                ? api.postAsync("/usuarios", u)
+                : api.putAsync("/usuarios/" + u.getId(), u);
+        call.whenCompleteAsync((resp, error) -> {
+            btnSave.setEnabled(true);
+            if (error != null) {
+                vista.accept(edit.revertir());
+                JOptionPane.showMessageDialog(this, "Error de conexión: " + ApiExecutors.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
             }
-
             if (resp.status >= 200 && resp.status < 300) {
+                Usuario guardado = resp.bodyAs(Usuario.class);
+                vista.accept(edit.confirmar(guardado));
+                if (guardado == null && editing == null) {
+                    recargar.run();
+                }
                 JOptionPane.showMessageDialog(this, "Guardado correctamente.");
-                onSaved.run();
                 dispose();
-            } else if (resp.status == 409) {
+                return;
+            }
+            vista.accept(edit.revertir());
+            if (resp.status == 409) {
                 // email duplicado -> conflicto
                 JOptionPane.showMessageDialog(this, "Conflicto (409): " + resp.body, "Conflicto", JOptionPane.WARNING_MESSAGE);
                 emailField.requestFocus();
@@ -107,8 +136,6 @@ public class UsuarioFormDialog extends JDialog {
             } else {
                 JOptionPane.showMessageDialog(this, "Error: " + resp.status + " " + resp.body, "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(this, "Error de conexión: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ApiExecutors.edt());
     }
 }
@@ -2,17 +2,32 @@ package main.java.com.bookhub.ui.usuarios;
 
 import com.bookhub.entity.Usuario;
 import com.bookhub.ui.common.ApiClient;
+import com.bookhub.ui.common.ApiExecutors;
+import com.bookhub.ui.common.DeltaSync;
+import com.bookhub.ui.common.DiagnosticsFrame;
+import com.bookhub.ui.common.EntityStore;
+import com.bookhub.ui.common.EntityStores;
+import com.bookhub.ui.common.JfrEvents;
+import com.bookhub.ui.common.KeySetRowFilter;
+import com.bookhub.ui.common.LiveUpdates;
+import com.bookhub.ui.common.NgramIndex;
+import com.bookhub.ui.common.OptimisticEdit;
+import com.bookhub.ui.common.SearchPipeline;
+import com.bookhub.ui.common.SnapshotStore;
 
 import javax.swing.*;
-import javax.swing.event.DocumentEvent;
-import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class UsuarioListFrame extends JFrame {
@@ -21,8 +36,22 @@ public class UsuarioListFrame extends JFrame {
     private final DefaultTableModel model;
     private final JTable table;
     private List<Usuario> usuarios;
+    private final EntityStore<Integer, Usuario> directorio = EntityStores.USUARIOS;
     private final TableRowSorter<TableModel> sorter;
     private final JTextField filtroField;
+    private final NgramIndex<Integer> searchIndex = new NgramIndex<>();
+    private final SnapshotStore snapshots = SnapshotStore.getDefault();
+    private final DeltaSync sync = new DeltaSync("/usuarios");
+    // Solo se tocan desde el EDT
+    private boolean cargando;
+    private boolean eventosPendientes;
+    private final SearchPipeline<Set<Integer>> searchPipeline;
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JButton btnRefresh = new JButton("Refrescar");
+
+    // Solo se toca desde el EDT: identifica la carga vigente
+    private int loadGeneration;
+    private CompletableFuture<List<Usuario>> pendingLoad;
 
     public UsuarioListFrame(ApiClient api) {
         this.api = api;
@@ -47,9 +76,13 @@ public class UsuarioListFrame extends JFrame {
         top.add(new JLabel("Filtrar por nombre/email: "), BorderLayout.WEST);
         top.add(filtroField, BorderLayout.CENTER);
 
-        JButton btnRefresh = new JButton("Refrescar");
         top.add(btnRefresh, BorderLayout.EAST);
 
+        progressBar.setIndeterminate(true);
+        progressBar.setString("Cargando usuarios...");
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+
         JPanel bottom = new JPanel();
         JButton btnNuevo = new JButton("Nuevo");
         JButton btnEditar = new JButton("Editar");
@@ -57,6 +90,7 @@ public class UsuarioListFrame extends JFrame {
         bottom.add(btnNuevo);
         bottom.add(btnEditar);
         bottom.add(btnEliminar);
+        bottom.add(progressBar);
 
         add(top, BorderLayout.NORTH);
         add(scroll, BorderLayout.CENTER);
@@ -75,46 +109,224 @@ public class UsuarioListFrame extends JFrame {
             }
         });
 
-        // filtro live
-        filtroField.getDocument().addDocumentListener(new DocumentListener() {
-            public void insertUpdate(DocumentEvent e) { applyFilter(); }
-            public void removeUpdate(DocumentEvent e) { applyFilter(); }
-            public void changedUpdate(DocumentEvent e) { applyFilter(); }
-        });
+        // filtro live (debounce + calculo en segundo plano)
+        searchPipeline = new SearchPipeline<>(filtroField, 150, searchIndex::search, this::applyMatches);
 
         // focus traversal natural (tab order)
         setFocusTraversalPolicy(new DefaultFocusTraversalPolicy());
 
-        // carga inicial
+        // Ctrl+Shift+D abre el panel de diagnostico
+        DiagnosticsFrame.install(getRootPane());
+
+        // carga inicial: primero la instantanea local, luego el backend
+        SnapshotStore.Snapshot<Usuario> snapshot = snapshots.read("usuarios", Usuario.class);
+        if (snapshot != null) {
+            usuarios = snapshot.items;
+            renderUsuarios();
+        }
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                snapshots.flush("usuarios");
+            }
+        });
         loadUsuarios();
+        LiveUpdates.getDefault().subscribe("usuarios", Usuario.class, this::onLiveDelta, this::onLiveReset);
     }
 
     private void applyFilter() {
-        String text = filtroField.getText();
-        if (text == null || text.isBlank()) {
+        searchPipeline.applyNow();
+    }
+
+    private void applyMatches(Set<Integer> matches) {
+        if (matches == null) {
             sorter.setRowFilter(null);
         } else {
-            String regex = "(?i).*" + Pattern.quote(text) + ".*";
-            sorter.setRowFilter(javax.swing.RowFilter.regexFilter(regex, 1, 2));
+            sorter.setRowFilter(new KeySetRowFilter<>(matches, row -> model.getValueAt(row, 0)));
         }
     }
 
     private void loadUsuarios() {
-        SwingUtilities.invokeLater(() -> {
-            model.setRowCount(0);
-            try {
-                usuarios = api.getList("/usuarios", Usuario.class);
-                for (Usuario u : usuarios) {
-                    model.addRow(new Object[]{u.getId(), u.getNombre(), u.getEmail(), u.getTelefono()});
+        // Una carga nueva deja obsoleta a la anterior aunque su peticion siga en curso
+        int generation = ++loadGeneration;
+        if (pendingLoad != null) {
+            pendingLoad.cancel(false);
+        }
+        setLoading(true);
+
+        if (sync.puedeIncremental()) {
+            loadCambios(generation);
+            return;
+        }
+
+        // La marca se pide antes del listado: lo que cambie mientras tanto llega en el proximo delta
+        boolean pedirMarca = sync.debePedirMarca();
+        CompletableFuture<DeltaSync.Delta<Usuario>> marca = pedirMarca
+                ? api.getDeltaAsync("/usuarios", null, Usuario.class)
+                : CompletableFuture.completedFuture(null);
+
+        pendingLoad = marca.handle((d, e) -> null).thenCompose(v -> api.getListAsync("/usuarios", Usuario.class));
+        pendingLoad.whenCompleteAsync((lista, error) -> {
+            if (generation != loadGeneration) return;
+            pendingLoad = null;
+            setLoading(false);
+
+            // Si la peticion de marca fallo por red se reintenta en la proxima carga
+            if (pedirMarca && !marca.isCompletedExceptionally()) {
+                DeltaSync.Delta<Usuario> delta = marca.join();
+                if (error == null || delta == null) {
+                    sync.registrar(delta, true);
                 }
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this, "Error cargando usuarios: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             }
-        });
+
+            if (error != null) {
+                Throwable cause = ApiExecutors.unwrap(error);
+                if (!(cause instanceof CancellationException)) {
+                    JOptionPane.showMessageDialog(this, "Error cargando usuarios: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+                return;
+            }
+
+            usuarios = lista;
+            renderUsuarios();
+            snapshots.writeAsync("usuarios", usuarios);
+            reloadIfEventsPending();
+        }, ApiExecutors.edt());
+    }
+
+    /**
+     * Refresco incremental: aplica altas, cambios y bajas directamente sobre
+     * las filas existentes en vez de reconstruir la tabla.
+     */
+    private void loadCambios(int generation) {
+        api.getDeltaAsync("/usuarios", sync.getMarca(), Usuario.class).whenCompleteAsync((delta, error) -> {
+            if (generation != loadGeneration) return;
+            setLoading(false);
+
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error cargando usuarios: " + ApiExecutors.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            sync.registrar(delta, false);
+            if (delta == null) {
+                // Marca caducada o backend sin soporte: carga completa
+                loadUsuarios();
+                return;
+            }
+            applyDelta(delta);
+            reloadIfEventsPending();
+        }, ApiExecutors.edt());
+    }
+
+    /** Cambios empujados por el canal de eventos. */
+    private void onLiveDelta(DeltaSync.Delta<Usuario> delta) {
+        if (cargando || usuarios == null) {
+            // Una carga en curso podria pisar el parche; se refresca al terminar
+            eventosPendientes = true;
+            return;
+        }
+        applyDelta(delta);
+        sync.avanzar(delta.marca);
+    }
+
+    private void onLiveReset() {
+        if (cargando) {
+            eventosPendientes = true;
+        } else {
+            loadUsuarios();
+        }
+    }
+
+    private void reloadIfEventsPending() {
+        if (eventosPendientes) {
+            eventosPendientes = false;
+            loadUsuarios();
+        }
+    }
+
+    /**
+     * Muestra una escritura propia sin esperar al servidor (ver OptimisticEdit).
+     * Si hay una carga en curso, puede no incluirla: se refresca al terminar.
+     */
+    private void applyLocal(DeltaSync.Delta<Usuario> delta) {
+        if (cargando || usuarios == null) {
+            eventosPendientes = true;
+            if (usuarios == null) return;
+        }
+        applyDelta(delta);
+    }
+
+    private void applyDelta(DeltaSync.Delta<Usuario> delta) {
+        if (delta.isEmpty()) return;
+
+        JfrEvents.TablePopulate event = JfrEvents.beginTablePopulate();
+        usuarios = DeltaSync.merge(usuarios, delta, Usuario::getId);
+        applyCambios(delta);
+        applyFilter();
+        JfrEvents.end(event, "usuarios", delta.cambios.size() + delta.eliminados.size());
+        snapshots.writeLater("usuarios", () -> usuarios);
+    }
+
+    private void applyCambios(DeltaSync.Delta<Usuario> delta) {
+        Map<Integer, Integer> filas = new HashMap<>(model.getRowCount() * 2);
+        for (int row = 0; row < model.getRowCount(); row++) {
+            filas.put((Integer) model.getValueAt(row, 0), row);
+        }
+
+        // Bajas de abajo hacia arriba para no desplazar los indices pendientes
+        List<Integer> bajas = new ArrayList<>();
+        for (String clave : delta.eliminados) {
+            Integer id = Integer.valueOf(clave);
+            directorio.remove(id);
+            searchIndex.remove(id);
+            Integer row = filas.remove(id);
+            if (row != null) bajas.add(row);
+        }
+        bajas.sort(Collections.reverseOrder());
+        for (int row : bajas) {
+            model.removeRow(row);
+        }
+        if (!bajas.isEmpty()) {
+            filas.clear();
+            for (int row = 0; row < model.getRowCount(); row++) {
+                filas.put((Integer) model.getValueAt(row, 0), row);
+            }
+        }
+
+        for (Usuario u : delta.cambios) {
+            directorio.put(u);
+            searchIndex.put(u.getId(), NgramIndex.join(u.getNombre(), u.getEmail()));
+            Integer row = filas.get(u.getId());
+            if (row == null) {
+                model.addRow(new Object[]{u.getId(), u.getNombre(), u.getEmail(), u.getTelefono()});
+            } else {
+                model.setValueAt(u.getNombre(), row, 1);
+                model.setValueAt(u.getEmail(), row, 2);
+                model.setValueAt(u.getTelefono(), row, 3);
+            }
+        }
+    }
+
+    private void renderUsuarios() {
+        JfrEvents.TablePopulate event = JfrEvents.beginTablePopulate();
+        directorio.replaceAll(usuarios);
+        model.setRowCount(0);
+        for (Usuario u : usuarios) {
+            model.addRow(new Object[]{u.getId(), u.getNombre(), u.getEmail(), u.getTelefono()});
+        }
+        searchIndex.sync(usuarios, Usuario::getId, u -> NgramIndex.join(u.getNombre(), u.getEmail()));
+        applyFilter();
+        JfrEvents.end(event, "usuarios", usuarios.size());
+    }
+
+    private void setLoading(boolean loading) {
+        cargando = loading;
+        progressBar.setVisible(loading);
+        btnRefresh.setText(loading ? "Cargando..." : "Refrescar");
     }
 
     private void openForm(Usuario usuario) {
-        UsuarioFormDialog dialog = new UsuarioFormDialog(this, api, usuario, this::loadUsuarios);
+        UsuarioFormDialog dialog = new UsuarioFormDialog(this, api, usuario, directorio, this::applyLocal, this::loadUsuarios);
         dialog.setVisible(true);
     }
 
@@ -126,7 +338,7 @@ public class UsuarioListFrame extends JFrame {
         }
         int modelRow = table.convertRowIndexToModel(sel);
         int id = (int) model.getValueAt(modelRow, 0);
-        Usuario u = usuarios.stream().filter(x -> x.getId() == id).findFirst().orElse(null);
+        Usuario u = directorio.get(id);
         if (u != null) openForm(u);
     }
 
@@ -139,21 +351,29 @@ public class UsuarioListFrame extends JFrame {
         int modelRow = table.convertRowIndexToModel(sel);
         int id = (int) model.getValueAt(modelRow, 0);
 
-        int conf = JOptionPane.showConfirmDialog(this, "¿Eliminar usuario con id=" + id + "?", "Confirmar", JOptionPane.YES_NO_OPTION);
+        Usuario u = directorio.get(id);
+        String detalle = u != null ? u.getNombre() + " (id=" + id + ")" : "con id=" + id;
+        int conf = JOptionPane.showConfirmDialog(this, "¿Eliminar usuario " + detalle + "?", "Confirmar", JOptionPane.YES_NO_OPTION);
         if (conf != JOptionPane.YES_OPTION) return;
 
-        try {
-            ApiClient.ApiResponse resp = api.delete("/usuarios/" + id);
-            if (resp.status >= 200 && resp.status < 300) {
+        // La fila desaparece ya; si el servidor rechaza la baja vuelve a aparecer
+        OptimisticEdit<Integer, Usuario> edit = OptimisticEdit.eliminar(directorio, id);
+        applyLocal(edit.aplicar());
+
+        api.deleteAsync("/usuarios/" + id).whenCompleteAsync((resp, error) -> {
+            if (error == null && resp.isSuccess()) {
+                applyLocal(edit.confirmar(null));
                 JOptionPane.showMessageDialog(this, "Usuario eliminado correctamente.");
-                loadUsuarios();
+                return;
+            }
+            applyLocal(edit.revertir());
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error de conexión: " + ApiExecutors.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             } else if (resp.status == 409) {
                 JOptionPane.showMessageDialog(this, "No se puede eliminar: " + resp.body, "Conflicto (409)", JOptionPane.WARNING_MESSAGE);
             } else {
                 JOptionPane.showMessageDialog(this, "Error: " + resp.status + " " + resp.body, "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (IOException ex) {
-            JOptionPane.showMessageDialog(this, "Error de conexión: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ApiExecutors.edt());
     }
 }
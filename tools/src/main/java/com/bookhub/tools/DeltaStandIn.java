@@ -0,0 +1,258 @@
+package com.bookhub.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+/**
+ * Libros y usuarios en memoria con el protocolo de DeltaSync:
+ * GET {coleccion} devuelve el listado (con offset/limit, una pagina y
+ * X-Total-Count) y GET {coleccion}/cambios?desde={marca} los registros
+ * modificados y las claves borradas desde la marca; sin desde, solo la marca.
+ *
+ * Un hilo simula a otro puesto: cada cierto tiempo modifica, crea o borra un
+ * registro, asi cada refresco del cliente trae un delta pequeno. Las bajas se
+ * recuerdan solo durante MAX_VERSIONES versiones; una marca mas antigua (o
+ * ilegible) recibe 410 y el cliente debe volver a la carga completa.
+ */
+class DeltaStandIn {
+
+    private static final int MAX_VERSIONES = 100;
+
+    private final Coleccion libros;
+    private final Coleccion usuarios;
+    private final boolean conCambios;
+
+    DeltaStandIn(boolean conCambios) {
+        this.conCambios = conCambios;
+        this.libros = new Coleccion("/libros", n -> "978-0-00-" + String.format("%06d", n) + "-0", DeltaStandIn::libro);
+        this.usuarios = new Coleccion("/usuarios", String::valueOf, DeltaStandIn::usuario);
+        for (int i = 0; i < 20; i++) libros.crear();
+        for (int i = 0; i < 5; i++) usuarios.crear();
+    }
+
+    /** Arranca el hilo que simula cambios de otro puesto. */
+    void simular(long cadaMs) {
+        if (cadaMs <= 0) return;
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "standin-cambios");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.scheduleAtFixedRate(() -> {
+            Coleccion coleccion = ThreadLocalRandom.current().nextInt(4) == 0 ? usuarios : libros;
+            SseStandIn.log(coleccion.cambiarAlgo());
+        }, cadaMs, cadaMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** @return false si la ruta no es de una coleccion simulada */
+    boolean handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        for (Coleccion coleccion : List.of(libros, usuarios)) {
+            if (path.equals(coleccion.ruta)) {
+                listado(exchange, coleccion);
+                return true;
+            }
+            if (path.equals(coleccion.ruta + "/cambios")) {
+                if (!conCambios) {
+                    responder(exchange, 404, "");
+                } else {
+                    cambios(exchange, coleccion);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void listado(HttpExchange exchange, Coleccion coleccion) throws IOException {
+        Map<String, String> query = query(exchange);
+        List<String> vigentes = coleccion.vigentes();
+        int total = vigentes.size();
+        if (query.containsKey("offset") || query.containsKey("limit")) {
+            int offset = Math.min(total, Integer.parseInt(query.getOrDefault("offset", "0")));
+            int limit = Integer.parseInt(query.getOrDefault("limit", String.valueOf(total)));
+            vigentes = vigentes.subList(offset, Math.min(total, offset + limit));
+            exchange.getResponseHeaders().set("X-Total-Count", String.valueOf(total));
+        }
+        responder(exchange, 200, "[" + String.join(",", vigentes) + "]");
+    }
+
+    private void cambios(HttpExchange exchange, Coleccion coleccion) throws IOException {
+        String desde = query(exchange).get("desde");
+        String cuerpo = coleccion.cambiosDesde(desde);
+        if (cuerpo == null) {
+            SseStandIn.log("GET " + coleccion.ruta + "/cambios?desde=" + desde + ": marca caducada, 410");
+            responder(exchange, 410, "{\"error\":\"Marca caducada\"}");
+            return;
+        }
+        SseStandIn.log("GET " + coleccion.ruta + "/cambios?desde=" + desde + ": " + cuerpo.length() + " bytes");
+        responder(exchange, 200, cuerpo);
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> valores = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) return valores;
+        for (String par : raw.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                valores.put(par.substring(0, igual), URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return valores;
+    }
+
+    static void responder(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        }
+    }
+
+    // ---- Datos ----
+
+    private static String libro(long n, long version) {
+        String[] categorias = {"Literatura", "Tecnologia", "Ciencia", "Historia", "Infantil", "Arte", "Otro"};
+        return "{\"isbn\": \"978-0-00-" + String.format("%06d", n) + "-0\", \"titulo\": \"Libro " + n + " v" + version
+                + "\", \"autor\": \"Autor " + (n % 7) + "\", \"categoria\": \"" + categorias[(int) (n % categorias.length)]
+                + "\", \"disponible\": " + (version % 2 == 0) + "}";
+    }
+
+    private static String usuario(long n, long version) {
+        return "{\"id\": " + n + ", \"nombre\": \"Usuario " + n + " v" + version + "\", \"email\": \"usuario" + n
+                + "@bookhub.local\", \"telefono\": \"600000" + String.format("%03d", n) + "\"}";
+    }
+
+    /** Registros con la version en la que cambiaron; las bajas quedan como lapidas. */
+    private static final class Coleccion {
+        final String ruta;
+        private final LongFunction<String> clave;
+        private final Generador generador;
+        // Orden de modificacion: la ultima version al final
+        private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>();
+        private final Map<String, Long> numeros = new HashMap<>();
+        private long version;
+        private long siguiente = 1;
+
+        Coleccion(String ruta, LongFunction<String> clave, Generador generador) {
+            this.ruta = ruta;
+            this.clave = clave;
+            this.generador = generador;
+        }
+
+        synchronized String crear() {
+            long n = siguiente++;
+            String key = clave.apply(n);
+            numeros.put(key, n);
+            poner(key, generador.json(n, ++version));
+            return key;
+        }
+
+        synchronized String cambiarAlgo() {
+            List<String> vivas = new ArrayList<>();
+            entradas.forEach((key, entrada) -> {
+                if (entrada.json != null) vivas.add(key);
+            });
+            int dado = ThreadLocalRandom.current().nextInt(10);
+            if (vivas.isEmpty() || dado == 0) {
+                return "Alta en " + ruta + ": " + crear();
+            }
+            String key = vivas.get(ThreadLocalRandom.current().nextInt(vivas.size()));
+            if (dado == 1) {
+                ++version;
+                poner(key, null);
+                return "Baja en " + ruta + ": " + key;
+            }
+            poner(key, generador.json(numeros.get(key), ++version));
+            return "Cambio en " + ruta + ": " + key + " (version " + version + ")";
+        }
+
+        private void poner(String key, String json) {
+            // Reinsertar mueve la entrada al final
+            entradas.remove(key);
+            entradas.put(key, new Entrada(version, json));
+            podar();
+        }
+
+        /** Olvida las bajas que ya ninguna marca vigente puede pedir. */
+        private void podar() {
+            Iterator<Entrada> it = entradas.values().iterator();
+            while (it.hasNext()) {
+                Entrada entrada = it.next();
+                if (entrada.json == null && entrada.version <= version - MAX_VERSIONES) {
+                    it.remove();
+                }
+            }
+        }
+
+        synchronized List<String> vigentes() {
+            List<String> vigentes = new ArrayList<>();
+            for (Entrada entrada : entradas.values()) {
+                if (entrada.json != null) vigentes.add(entrada.json);
+            }
+            return vigentes;
+        }
+
+        /** @return null si la marca no se reconoce o ya no puede responderse */
+        synchronized String cambiosDesde(String desde) {
+            if (desde == null) {
+                return "{\"marca\": \"" + version + "\", \"cambios\": [], \"eliminados\": []}";
+            }
+            long marca;
+            try {
+                marca = Long.parseLong(desde);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (marca < version - MAX_VERSIONES || marca > version) return null;
+
+            List<String> cambios = new ArrayList<>();
+            List<String> eliminados = new ArrayList<>();
+            for (Map.Entry<String, Entrada> e : entradas.entrySet()) {
+                Entrada entrada = e.getValue();
+                if (entrada.version <= marca) continue;
+                if (entrada.json != null) {
+                    cambios.add(entrada.json);
+                } else {
+                    eliminados.add("\"" + e.getKey() + "\"");
+                }
+            }
+            return "{\"marca\": \"" + version + "\", \"cambios\": [" + String.join(",", cambios)
+                    + "], \"eliminados\": [" + String.join(",", eliminados) + "]}";
+        }
+    }
+
+    private static final class Entrada {
+        final long version;
+        final String json;
+
+        Entrada(long version, String json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Generador {
+        String json(long numero, long version);
+    }
+}
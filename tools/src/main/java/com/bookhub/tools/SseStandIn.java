@@ -0,0 +1,197 @@
+package com.bookhub.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor local que imita GET /eventos del backend para probar LiveUpdates
+ * con los casos que un backend real rara vez produce a demanda.
+ *
+ * Guion de cada conexion:
+ * 1. Sin Last-Event-ID: envia retry, un latido, un delta de libros con el JSON
+ *    repartido en varias lineas data:, un evento de libros ilegible (el cliente
+ *    debe resincronizar), un evento sin datos que solo mueve el id, un campo
+ *    desconocido y un evento con fin de linea CRLF; despues corta sin aviso.
+ * 2. Con Last-Event-ID: comprueba que sea el ultimo id enviado y manda un delta
+ *    mas; si no lo es pide "reinicio". Luego solo latidos hasta que el cliente
+ *    cierre, lo que ocurre al cerrar la ultima pantalla suscrita.
+ *
+ * Libros y usuarios los sirve DeltaStandIn (listados y {coleccion}/cambios,
+ * con cambios simulados cada --cambios-cada ms); el resto de GET responde [],
+ * de modo que el cliente arranca con api.base.url=http://localhost:8080.
+ * Con --detener /eventos responde 204 y el cliente no debe reconectar; con
+ * --sin-delta los /cambios responden 404 y el cliente vuelve a la carga completa.
+ *
+ * Comprobacion manual (no hay pruebas automaticas que arranquen el cliente):
+ * - Eventos: al abrir el listado de libros el log muestra la conexion 1 y su
+ *   corte, y luego "OK: reanudacion desde el ultimo id enviado"; el cliente
+ *   escribe "Evento 'libros' invalido" una vez. Al cerrar la ultima pantalla
+ *   el log muestra "cerrada por el cliente".
+ * - Delta: cada refresco (F5) pide /cambios?desde= con la marca anterior y
+ *   recibe solo lo cambiado desde entonces; una marca de hace mas de 100
+ *   versiones recibe 410 y el siguiente GET es el listado completo.
+ *
+ * Uso: java -jar target/sse-standin.jar [--puerto 8080] [--detener] [--sin-delta] [--cambios-cada 3000]
+ */
+public class SseStandIn {
+
+    private static final String EVENTOS = "/eventos";
+    private static final int LATIDO_MS = 5000;
+
+    private final boolean detener;
+    private final DeltaStandIn delta;
+    private final AtomicInteger conexiones = new AtomicInteger();
+    private final AtomicLong siguienteId = new AtomicLong(1);
+    private volatile String ultimoId;
+
+    SseStandIn(boolean detener, DeltaStandIn delta) {
+        this.detener = detener;
+        this.delta = delta;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int puerto = 8080;
+        boolean detener = false;
+        boolean conDelta = true;
+        long cambiosCadaMs = 3000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--puerto" -> puerto = Integer.parseInt(args[++i]);
+                case "--detener" -> detener = true;
+                case "--sin-delta" -> conDelta = false;
+                case "--cambios-cada" -> cambiosCadaMs = Long.parseLong(args[++i]);
+                default -> {
+                    System.err.println("Argumento desconocido: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        DeltaStandIn delta = new DeltaStandIn(conDelta);
+        delta.simular(cambiosCadaMs);
+        SseStandIn standIn = new SseStandIn(detener, delta);
+        HttpServer server = HttpServer.create(new InetSocketAddress(puerto), 0);
+        server.createContext("/", standIn::handle);
+        // Cada conexion de eventos ocupa su hilo mientras siga abierta
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        log("Escuchando en http://localhost:" + puerto + EVENTOS + (detener ? " (responde 204)" : ""));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                DeltaStandIn.responder(exchange, 501, "{\"error\":\"El servidor de prueba solo atiende lecturas\"}");
+            } else if (path.equals(EVENTOS)) {
+                eventos(exchange);
+            } else if (delta.handle(exchange)) {
+                return;
+            } else if (path.endsWith("/cambios")) {
+                DeltaStandIn.responder(exchange, 404, "");
+            } else {
+                DeltaStandIn.responder(exchange, 200, "[]");
+            }
+        }
+    }
+
+    private void eventos(HttpExchange exchange) throws IOException {
+        int n = conexiones.incrementAndGet();
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        log("Conexion " + n + ": Accept=" + exchange.getRequestHeaders().getFirst("Accept")
+                + " Last-Event-ID=" + lastEventId);
+
+        if (detener) {
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8);
+
+        if (lastEventId == null) {
+            primeraConexion(out);
+            log("Conexion " + n + ": cortada tras el guion; el cliente debe reconectar con Last-Event-ID=" + ultimoId);
+            return;
+        }
+
+        if (lastEventId.equals(ultimoId)) {
+            log("OK: reanudacion desde el ultimo id enviado (" + lastEventId + ")");
+            enviar(out, "libros", "{\"marca\": \"" + siguienteId.get() + "\", \"cambios\": [{\"isbn\": \"978-0-00-000001-1\","
+                    + " \"titulo\": \"Libro de prueba\", \"autor\": \"Stand-in\", \"categoria\": \"Pruebas\","
+                    + " \"disponible\": false}], \"eliminados\": []}");
+        } else {
+            log("AVISO: Last-Event-ID=" + lastEventId + " no es el ultimo enviado (" + ultimoId + "); se pide reinicio");
+            escribir(out, "event: reinicio\ndata: {}\n\n");
+        }
+
+        try {
+            while (true) {
+                Thread.sleep(LATIDO_MS);
+                escribir(out, ": latido\n\n");
+            }
+        } catch (IOException e) {
+            log("Conexion " + n + ": cerrada por el cliente");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void primeraConexion(Writer out) throws IOException {
+        // Bloque solo con retry: ajusta la espera y no genera evento
+        escribir(out, "retry: 1500\n\n");
+        escribir(out, ": latido\n\n");
+
+        // Un mismo delta en varias lineas data: (se unen con \n); el doble espacio
+        // comprueba que solo se quite el primero
+        long id = siguienteId.getAndIncrement();
+        escribir(out, "event: libros\nid: " + id + "\n"
+                + "data: {\"marca\": \"" + id + "\",\n"
+                + "data:  \"cambios\": [{\"isbn\": \"978-0-00-000001-1\", \"titulo\": \"Libro de prueba\",\n"
+                + "data:   \"autor\": \"Stand-in\", \"categoria\": \"Pruebas\", \"disponible\": true}],\n"
+                + "data:  \"eliminados\": []}\n\n");
+
+        // JSON truncado: el cliente debe descartarlo y resincronizar libros
+        id = siguienteId.getAndIncrement();
+        escribir(out, "event: libros\nid: " + id + "\ndata: {\"marca\": \"" + id + "\", \"cambios\": [\n\n");
+
+        // Sin data: no se despacha, pero el id cuenta para Last-Event-ID
+        id = siguienteId.getAndIncrement();
+        escribir(out, "event: usuarios\nid: " + id + "\n\n");
+
+        // Campo desconocido (se ignora) y fin de linea CRLF
+        id = siguienteId.getAndIncrement();
+        escribir(out, "event: usuarios\r\nid: " + id + "\r\nprioridad: alta\r\n"
+                + "data: {\"marca\": \"" + id + "\", \"cambios\": [{\"id\": 1, \"nombre\": \"Usuario de prueba\","
+                + " \"email\": \"prueba@bookhub.local\", \"telefono\": \"000000000\"}], \"eliminados\": []}\r\n\r\n");
+        ultimoId = String.valueOf(id);
+    }
+
+    private void enviar(Writer out, String evento, String data) throws IOException {
+        String id = String.valueOf(siguienteId.getAndIncrement());
+        escribir(out, "event: " + evento + "\nid: " + id + "\ndata: " + data + "\n\n");
+        ultimoId = id;
+    }
+
+    private static void escribir(Writer out, String texto) throws IOException {
+        out.write(texto);
+        out.flush();
+    }
+
+
+    static void log(String mensaje) {
+        System.out.println(LocalTime.now().withNano(0) + " " + mensaje);
+    }
+}